@@ -0,0 +1,79 @@
+package com.novofy.projection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// BigDecimal per-goal loop (pre-kernel baseline) vs scalar loop vs Vector API kernel over the same goal tuples
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class BatchProjectionBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    private int goals;
+
+    private double[] monthly;
+    private double[] roiRate;
+    private int[] years;
+    private double[] out;
+
+    private BatchProjectionKernel scalar;
+    private BatchProjectionKernel vector;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        monthly = new double[goals];
+        roiRate = new double[goals];
+        years = new int[goals];
+        out = new double[goals];
+        for (int i = 0; i < goals; i++) {
+            monthly[i] = 1_000 + rnd.nextInt(100_000);
+            roiRate[i] = rnd.nextInt(25);   // includes 0% to exercise the zero-rate lanes
+            years[i] = 1 + rnd.nextInt(40);
+        }
+        scalar = BatchProjectionKernels.scalar();
+        vector = BatchProjectionKernels.best();
+        if (vector instanceof ScalarBatchProjectionKernel) {
+            throw new IllegalStateException("vector kernel unavailable: run with -Pjmh,vector");
+        }
+    }
+
+    // Pre-kernel baseline; expect seconds per invocation at the largest size
+    @Benchmark
+    public BigDecimal[] bigDecimal() {
+        BigDecimal[] res = new BigDecimal[goals];
+        for (int i = 0; i < goals; i++) {
+            res[i] = BigDecimalProjectionBaseline.finalValue(BigDecimal.valueOf(monthly[i]), (int) roiRate[i], years[i]);
+        }
+        return res;
+    }
+
+    @Benchmark
+    public double[] scalar() {
+        scalar.project(monthly, roiRate, years, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] vector() {
+        vector.project(monthly, roiRate, years, out);
+        return out;
+    }
+}
@@ -0,0 +1,113 @@
+package com.novofy.projection;
+
+import com.novofy.dto.GoalAiResponse;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+// The per-year BigDecimal.pow implementations that ProjectionKernel replaced, kept verbatim (benchmark source set
+// only) so the JMH runs measure the kernel against what it replaced rather than in isolation.
+public final class BigDecimalProjectionBaseline {
+
+    private static final MathContext MC = MathContext.DECIMAL64;
+
+    private BigDecimalProjectionBaseline() {
+    }
+
+    // Former GoalService.computeGraphFromMonthly
+    public static List<GoalAiResponse.GraphPoint> computeGraphFromMonthly(BigDecimal monthlySaving, int startYear, int endYear, int roiRatePercent) {
+        ArrayList<GoalAiResponse.GraphPoint> out = new ArrayList<>();
+        BigDecimal zero = BigDecimal.ZERO;
+        if (monthlySaving == null || monthlySaving.signum() <= 0) {
+            for (int y = startYear; y <= endYear; y++) {
+                GoalAiResponse.GraphPoint gp = new GoalAiResponse.GraphPoint();
+                gp.setYear(y);
+                gp.setProjectedValue(zero);
+                out.add(gp);
+            }
+            return out;
+        }
+        BigDecimal rAnnual = BigDecimal.valueOf(roiRatePercent).divide(BigDecimal.valueOf(100), MC);
+        BigDecimal rMonthly = rAnnual.divide(BigDecimal.valueOf(12), MC);
+        BigDecimal onePlusRm = BigDecimal.ONE.add(rMonthly, MC);
+
+        for (int y = startYear; y <= endYear; y++) {
+            GoalAiResponse.GraphPoint gp = new GoalAiResponse.GraphPoint();
+            gp.setYear(y);
+            if (y == startYear) {
+                gp.setProjectedValue(zero);
+            } else {
+                int months = (y - startYear) * 12;
+                BigDecimal pow = onePlusRm.pow(months, MC);
+                BigDecimal fv = monthlySaving.multiply(pow.subtract(BigDecimal.ONE, MC)
+                        .divide(rMonthly, MC), MC);
+                gp.setProjectedValue(fv);
+            }
+            out.add(gp);
+        }
+        return out;
+    }
+
+    // Former GoalService.solveMonthlyFromFinal
+    public static BigDecimal solveMonthlyFromFinal(BigDecimal targetFinal, int years, int roiRatePercent) {
+        if (targetFinal == null || targetFinal.signum() <= 0 || years <= 0 || roiRatePercent <= 0) return BigDecimal.ZERO;
+        BigDecimal rAnnual = BigDecimal.valueOf(roiRatePercent).divide(BigDecimal.valueOf(100), MC);
+        BigDecimal rMonthly = rAnnual.divide(BigDecimal.valueOf(12), MC);
+        BigDecimal onePlusRm = BigDecimal.ONE.add(rMonthly, MC);
+        int months = years * 12;
+        BigDecimal pow = onePlusRm.pow(months, MC);
+        BigDecimal denom = pow.subtract(BigDecimal.ONE, MC).divide(rMonthly, MC);
+        if (denom.signum() == 0) return BigDecimal.ZERO;
+        return targetFinal.divide(denom, MC).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Former SimulationProjection.yearlyBalances
+    public static List<BigDecimal> yearlyBalances(BigDecimal oneTime, BigDecimal monthly, int roiRatePercent, int years) {
+        List<BigDecimal> out = new ArrayList<>(Math.max(0, years));
+        BigDecimal rMonthly = monthlyRate(roiRatePercent);
+        BigDecimal onePlusRm = BigDecimal.ONE.add(rMonthly, MC);
+        for (int k = 1; k <= years; k++) {
+            int months = k * 12;
+            BigDecimal growth = onePlusRm.pow(months, MC);
+            BigDecimal lump = oneTime.multiply(growth, MC);
+            BigDecimal annuity = monthly.multiply(annuityFactor(growth, rMonthly, months), MC);
+            out.add(lump.add(annuity, MC).setScale(2, RoundingMode.HALF_UP));
+        }
+        return out;
+    }
+
+    // Former SimulationProjection.solveMonthly
+    public static BigDecimal solveMonthly(BigDecimal targetAmount, BigDecimal oneTime, int roiRatePercent, int years) {
+        if (targetAmount == null || years <= 0) return BigDecimal.ZERO;
+        BigDecimal rMonthly = monthlyRate(roiRatePercent);
+        int months = years * 12;
+        BigDecimal growth = BigDecimal.ONE.add(rMonthly, MC).pow(months, MC);
+        BigDecimal remaining = targetAmount.subtract(oneTime.multiply(growth, MC), MC);
+        if (remaining.signum() <= 0) return BigDecimal.ZERO;
+        BigDecimal factor = annuityFactor(growth, rMonthly, months);
+        if (factor.signum() == 0) return BigDecimal.ZERO;
+        return remaining.divide(factor, MC).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Final value of one goal tuple the old way, for the batch baseline
+    public static BigDecimal finalValue(BigDecimal monthly, int roiRatePercent, int years) {
+        BigDecimal rMonthly = monthlyRate(roiRatePercent);
+        int months = years * 12;
+        BigDecimal growth = BigDecimal.ONE.add(rMonthly, MC).pow(months, MC);
+        return monthly.multiply(annuityFactor(growth, rMonthly, months), MC);
+    }
+
+    private static BigDecimal monthlyRate(int roiRatePercent) {
+        return BigDecimal.valueOf(roiRatePercent)
+                .divide(BigDecimal.valueOf(100), MC)
+                .divide(BigDecimal.valueOf(12), MC);
+    }
+
+    private static BigDecimal annuityFactor(BigDecimal growth, BigDecimal rMonthly, int months) {
+        if (rMonthly.signum() == 0) return BigDecimal.valueOf(months);
+        return growth.subtract(BigDecimal.ONE, MC).divide(rMonthly, MC);
+    }
+}
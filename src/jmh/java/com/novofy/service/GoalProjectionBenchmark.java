@@ -0,0 +1,83 @@
+package com.novofy.service;
+
+import com.novofy.dto.GoalAiResponse;
+import com.novofy.projection.BigDecimalProjectionBaseline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GoalService projection helpers against the BigDecimal implementation they replaced (*BigDecimal benchmarks);
+// run with -prof gc (the jmh profile default) for allocation rates
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GoalProjectionBenchmark {
+
+    private static final int START_YEAR = 2025;
+
+    @Param({"5", "20", "40"})
+    private int horizonYears;
+
+    @Param({"6", "12", "24"})
+    private int roiRate;
+
+    private BigDecimal monthly;
+    private BigDecimal targetFinal;
+    private List<GoalAiResponse.GraphPoint> sparseGraph;
+
+    @Setup
+    public void setup() {
+        monthly = new BigDecimal("15000.00");
+        targetFinal = new BigDecimal("1300000.00");
+
+        // AI-style graph with every other year missing, so normalizeGraph has gaps to fill
+        sparseGraph = new ArrayList<>();
+        for (int y = START_YEAR; y <= START_YEAR + horizonYears; y += 2) {
+            GoalAiResponse.GraphPoint gp = new GoalAiResponse.GraphPoint();
+            gp.setYear(y);
+            gp.setProjectedValue(BigDecimal.valueOf(1000L * (y - START_YEAR) * roiRate));
+            sparseGraph.add(gp);
+        }
+    }
+
+    @Benchmark
+    public List<GoalAiResponse.GraphPoint> computeGraphFromMonthly() {
+        return GoalService.computeGraphFromMonthly(monthly, START_YEAR, START_YEAR + horizonYears, roiRate);
+    }
+
+    @Benchmark
+    public List<GoalAiResponse.GraphPoint> computeGraphFromMonthlyBigDecimal() {
+        return BigDecimalProjectionBaseline.computeGraphFromMonthly(monthly, START_YEAR, START_YEAR + horizonYears, roiRate);
+    }
+
+    @Benchmark
+    public BigDecimal solveMonthlyFromFinal() {
+        return GoalService.solveMonthlyFromFinal(targetFinal, horizonYears, roiRate);
+    }
+
+    @Benchmark
+    public BigDecimal solveMonthlyFromFinalBigDecimal() {
+        return BigDecimalProjectionBaseline.solveMonthlyFromFinal(targetFinal, horizonYears, roiRate);
+    }
+
+    @Benchmark
+    public List<GoalAiResponse.GraphPoint> normalizeGraph() {
+        return GoalService.normalizeGraph(sparseGraph, START_YEAR, START_YEAR + horizonYears);
+    }
+}
@@ -0,0 +1,92 @@
+package com.novofy.service;
+
+import com.novofy.dto.SimulationAiResponse;
+import com.novofy.model.Simulation;
+import com.novofy.projection.BigDecimalProjectionBaseline;
+import com.novofy.projection.SimulationProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// SimulationService series helpers, plus SimulationProjection against the BigDecimal implementation it replaced
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulationSeriesBenchmark {
+
+    private static final int START_YEAR = 2025;
+
+    @Param({"5", "20", "40"})
+    private int horizonYears;
+
+    @Param({"6", "12", "24"})
+    private int roiRate;
+
+    private final BigDecimal oneTime = new BigDecimal("100000.00");
+    private final BigDecimal monthly = new BigDecimal("5000.00");
+    private final BigDecimal target = new BigDecimal("5000000.00");
+
+    private List<SimulationAiResponse.GraphPoint> sparseSeries;
+    private List<SimulationAiResponse.GraphPoint> fullSeries;
+
+    @Setup
+    public void setup() {
+        sparseSeries = new ArrayList<>();
+        fullSeries = new ArrayList<>();
+        double balance = 100_000;
+        for (int i = 1; i <= horizonYears; i++) {
+            balance = balance * (1 + roiRate / 100.0) + 60_000;
+            SimulationAiResponse.GraphPoint gp = new SimulationAiResponse.GraphPoint();
+            gp.setYear(i);
+            gp.setProjectedValue(BigDecimal.valueOf(balance));
+            fullSeries.add(gp);
+            if (i % 3 != 0) sparseSeries.add(gp); // drop every third year
+        }
+    }
+
+    @Benchmark
+    public List<SimulationAiResponse.GraphPoint> normalizeIndexSeries() {
+        return SimulationService.normalizeIndexSeries(sparseSeries, horizonYears);
+    }
+
+    @Benchmark
+    public List<Simulation.GoalGraphData> toCalendarSeries() {
+        return SimulationService.toCalendarSeries(fullSeries, START_YEAR);
+    }
+
+    @Benchmark
+    public List<BigDecimal> yearlyBalances() {
+        return SimulationProjection.yearlyBalances(oneTime, monthly, roiRate, horizonYears);
+    }
+
+    @Benchmark
+    public List<BigDecimal> yearlyBalancesBigDecimal() {
+        return BigDecimalProjectionBaseline.yearlyBalances(oneTime, monthly, roiRate, horizonYears);
+    }
+
+    @Benchmark
+    public BigDecimal solveMonthly() {
+        return SimulationProjection.solveMonthly(target, oneTime, roiRate, horizonYears);
+    }
+
+    @Benchmark
+    public BigDecimal solveMonthlyBigDecimal() {
+        return BigDecimalProjectionBaseline.solveMonthly(target, oneTime, roiRate, horizonYears);
+    }
+}
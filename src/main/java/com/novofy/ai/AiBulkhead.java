@@ -0,0 +1,115 @@
+package com.novofy.ai;
+
+import com.novofy.exception.RetryLaterException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.ai.chat.client.advisor.api.AdvisedRequest;
+import org.springframework.ai.chat.client.advisor.api.AdvisedResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAroundAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAroundAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAroundAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAroundAdvisorChain;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caps concurrent ChatClient calls so slow AI responses cannot tie up the whole server.
+// Callers wait at most max-wait-ms for a permit (and only max-queued may wait); everyone else gets a 503 with Retry-After.
+@Component
+public class AiBulkhead implements CallAroundAdvisor, StreamAroundAdvisor, MeterBinder {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitMs;
+    private final long retryAfterSeconds;
+    private final LongAdder rejected = new LongAdder();
+
+    public AiBulkhead(@Value("${app.ai.bulkhead.max-concurrent:8}") int maxConcurrent,
+                      @Value("${app.ai.bulkhead.max-queued:32}") int maxQueued,
+                      @Value("${app.ai.bulkhead.max-wait-ms:2000}") long maxWaitMs,
+                      @Value("${app.ai.bulkhead.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMs = maxWaitMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public AdvisedResponse aroundCall(AdvisedRequest advisedRequest, CallAroundAdvisorChain chain) {
+        acquire();
+        try {
+            return chain.nextAroundCall(advisedRequest);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Streams hold their permit until the stream terminates or is cancelled
+    @Override
+    public Flux<AdvisedResponse> aroundStream(AdvisedRequest advisedRequest, StreamAroundAdvisorChain chain) {
+        return Flux.defer(() -> {
+            acquire();
+            try {
+                return chain.nextAroundStream(advisedRequest).doFinally(signal -> permits.release());
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        });
+    }
+
+    void acquire() {
+        boolean acquired = false;
+        if (permits.getQueueLength() < maxQueued) {
+            try {
+                acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "AI service is busy. Please retry shortly.", retryAfterSeconds);
+        }
+    }
+
+    public int activeCalls() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int queuedCalls() {
+        return permits.getQueueLength();
+    }
+
+    public long rejectedCalls() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ai.bulkhead.active", this, AiBulkhead::activeCalls).register(registry);
+        Gauge.builder("ai.bulkhead.queued", this, AiBulkhead::queuedCalls).register(registry);
+        FunctionCounter.builder("ai.bulkhead.rejected", this, AiBulkhead::rejectedCalls).register(registry);
+    }
+
+    @Override
+    public String getName() {
+        return "AiBulkhead";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,83 @@
+package com.novofy.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.novofy.exception.RetryLaterException;
+import com.novofy.timing.RequestTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Wraps each upstream AI call (sync or streamed, including the JSON conversion) with
+//   ai.call.duration{endpoint, outcome}  - latency timer, histogram enabled in application.properties
+//   ai.call.outcomes{endpoint, outcome}  - counter
+// outcome: success | rate_limited (HTTP 429) | non_transient | parse_failure | rejected (bulkhead) | error.
+// The elapsed time also feeds the request's Server-Timing "ai" phase.
+// Goes inside AiRequestCoalescer, so calls shared by several requests are counted once.
+@Component
+public class AiCallMetrics {
+
+    // Spring AI's default error handler throws NonTransientAiException("<status> - <body>") without a cause
+    private static final Pattern STATUS_PREFIX = Pattern.compile("^(\\d{3}) - ");
+
+    private final MeterRegistry registry;
+
+    public AiCallMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T record(String endpoint, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            RequestTimings.record(RequestTimings.Phase.AI, System.nanoTime() - start);
+            sample.stop(registry.timer("ai.call.duration", "endpoint", endpoint, "outcome", outcome));
+            registry.counter("ai.call.outcomes", "endpoint", endpoint, "outcome", outcome).increment();
+        }
+    }
+
+    static String outcome(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof RetryLaterException) return "rejected";
+            if (t instanceof NonTransientAiException) {
+                // prefer a status-carrying cause, then the status the default handler puts in front of the body
+                int status = -1;
+                for (Throwable c = t.getCause(); c != null && status < 0; c = c.getCause() == c ? null : c.getCause()) {
+                    status = status(c);
+                }
+                if (status < 0) status = statusPrefix(t.getMessage());
+                return status == 429 ? "rate_limited" : "non_transient";
+            }
+            int status = status(t);
+            if (status >= 0) return status == 429 ? "rate_limited" : "error";
+            if (t instanceof JsonProcessingException) return "parse_failure";
+            if (t.getCause() == t) break;
+        }
+        return "error";
+    }
+
+    // HTTP status carried by an upstream response exception, -1 for anything else
+    private static int status(Throwable t) {
+        if (t instanceof RestClientResponseException rce) return rce.getStatusCode().value();
+        if (t instanceof WebClientResponseException wce) return wce.getStatusCode().value();
+        return -1;
+    }
+
+    private static int statusPrefix(String message) {
+        if (message == null) return -1;
+        Matcher m = STATUS_PREFIX.matcher(message);
+        return m.find() ? Integer.parseInt(m.group(1)) : -1;
+    }
+}
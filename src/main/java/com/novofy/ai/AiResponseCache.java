@@ -0,0 +1,53 @@
+package com.novofy.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// Shared cache of parsed AI responses keyed by normalized request inputs.
+// Cached values are treated as read-only by callers; each request still builds its own entity from them.
+@Component
+public class AiResponseCache implements MeterBinder {
+
+    private final Cache<String, Object> cache;
+
+    public AiResponseCache(@Value("${app.ai.response-cache.max-size:1000}") long maxSize,
+                           @Value("${app.ai.response-cache.ttl-ms:21600000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    public <T> T get(String key, Class<T> type) {
+        Object v = cache.getIfPresent(key);
+        return type.isInstance(v) ? type.cast(v) : null;
+    }
+
+    public void put(String key, Object value) {
+        if (key != null && value != null) cache.put(key, value);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "ai.responses");
+    }
+
+    // Trim, collapse inner whitespace and case-fold so "Perform Hajj " and "perform  hajj" share a key
+    public static String normalize(String s) {
+        return s == null ? "" : s.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,12 @@
+package com.novofy.ai;
+
+// Receives progress from a streaming AI request: raw text chunks while the model is answering,
+// then named stages (e.g. "graph") once the server has post-processed the assembled response.
+public interface AiStreamListener {
+
+    default void onChunk(String text) {
+    }
+
+    default void onStage(String stage, Object payload) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.novofy.ai;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+public class AiStreamer {
+
+    private final ChatClient chatClient;
+
+    @Value("${app.ai.stream.timeout-ms:120000}")
+    private long timeoutMs;
+
+    // Streams the answer to escapedPrompt, forwarding every chunk to the listener, and returns the full text.
+    // Blocks the caller until the stream completes, so call it from a background (virtual) thread.
+    // The output format is passed as a template parameter, the same way ChatClient.entity() appends it.
+    public String stream(String escapedPrompt, String format, AiStreamListener listener) {
+        StringBuilder sb = new StringBuilder();
+        chatClient
+                .prompt()
+                .user(u -> u.text(escapedPrompt + System.lineSeparator() + "{format}").param("format", format))
+                .stream()
+                .content()
+                .doOnNext(chunk -> {
+                    sb.append(chunk);
+                    listener.onChunk(chunk);
+                })
+                .blockLast(Duration.ofMillis(timeoutMs));
+        return sb.toString();
+    }
+}
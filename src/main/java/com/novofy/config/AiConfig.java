@@ -1,5 +1,6 @@
 package com.novofy.config;
 
+import com.novofy.ai.AiBulkhead;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.ai.chat.client.ChatClient;
@@ -16,7 +17,8 @@ public class AiConfig {
     public ChatClient chatClient(
             @Value("${spring.ai.openai.api-key}") String apiKey,
             @Value("${spring.ai.openai.chat.options.model}") String model,
-            @Value("${spring.ai.openai.organization-id:}") String orgId
+            @Value("${spring.ai.openai.organization-id:}") String orgId,
+            AiBulkhead aiBulkhead
     ) {
         String tail = apiKey != null && apiKey.length() > 6 ? apiKey.substring(apiKey.length() - 6) : "unknown";
         log.info("OpenAI config -> model={}, orgId={}, key=***{}",
@@ -25,6 +27,9 @@ public class AiConfig {
         var api = new org.springframework.ai.openai.api.OpenAiApi(apiKey /* uses default base URL */);
         var options = org.springframework.ai.openai.OpenAiChatOptions.builder().withModel(model).build();
         var openAiModel = new OpenAiChatModel(api, options);
-        return ChatClient.builder(openAiModel).build();
+        // every call goes through the bulkhead so AI latency cannot exhaust request threads
+        return ChatClient.builder(openAiModel)
+                .defaultAdvisors(aiBulkhead)
+                .build();
     }
 }
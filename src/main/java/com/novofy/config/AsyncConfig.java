@@ -0,0 +1,54 @@
+package com.novofy.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Bounded pool for background goal creation; a full queue is rejected instead of growing without limit
+    @Bean(name = "goalJobExecutor")
+    public ThreadPoolTaskExecutor goalJobExecutor(
+            @Value("${app.goal-jobs.pool-size:4}") int poolSize,
+            @Value("${app.goal-jobs.queue-capacity:100}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("goal-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // bcrypt is pure CPU: at most one thread per core (by default), a short queue, and rejection beyond that
+    // (PasswordHashingService turns it into 503) so a login storm can't starve unrelated requests
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${app.auth.hashing.pool-size:0}") int poolSize,
+            @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity
+    ) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pw-hash-");
+        executor.initialize();
+        return executor;
+    }
+
+    // SSE streams mostly wait on the AI provider, so each one gets its own virtual thread;
+    // concurrency against the provider is bounded by AiBulkhead, not here
+    @Bean(name = "aiStreamExecutor")
+    public SimpleAsyncTaskExecutor aiStreamExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ai-stream-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
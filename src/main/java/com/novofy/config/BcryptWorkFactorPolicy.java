@@ -0,0 +1,97 @@
+package com.novofy.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+// Chooses the bcrypt cost for the whole cluster: the highest cost in [min-cost, max-cost] whose hash time stays
+// within target-ms. One hash is timed at min-cost and the rest extrapolated (each cost step doubles the work),
+// so calibration costs about two hashes. The first node to calibrate stores its result in app_settings and every
+// node uses that value, so nodes on different hardware don't rehash passwords back and forth between costs.
+// app.auth.bcrypt.cost pins it instead; delete the app_settings "bcrypt_cost" document to recalibrate.
+// Hashes are only ever upgraded (stored cost < cost), never lowered.
+@Component
+public class BcryptWorkFactorPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(BcryptWorkFactorPolicy.class);
+
+    private static final String SETTINGS = "app_settings";
+    private static final String COST_ID = "bcrypt_cost";
+
+    private final int cost;
+
+    public BcryptWorkFactorPolicy(MongoTemplate mongoTemplate,
+                                  @Value("${app.auth.bcrypt.cost:0}") int fixedCost,
+                                  @Value("${app.auth.bcrypt.min-cost:10}") int minCost,
+                                  @Value("${app.auth.bcrypt.max-cost:14}") int maxCost,
+                                  @Value("${app.auth.bcrypt.target-ms:250}") long targetMs) {
+        this.cost = fixedCost > 0 ? fixedCost : sharedCost(mongoTemplate, minCost, maxCost, targetMs);
+    }
+
+    // Stored value if present, otherwise calibrate and store unless another node got there first ($setOnInsert)
+    private static int sharedCost(MongoTemplate mongoTemplate, int minCost, int maxCost, long targetMs) {
+        try {
+            MongoCollection<Document> settings = mongoTemplate.getCollection(SETTINGS);
+            Document stored = settings.find(Filters.eq("_id", COST_ID)).first();
+            if (stored != null && stored.get("cost") instanceof Number n) {
+                log.info("bcrypt cost {} (cluster setting)", n.intValue());
+                return n.intValue();
+            }
+            int calibrated = calibrate(minCost, maxCost, targetMs);
+            Document winner = settings.findOneAndUpdate(Filters.eq("_id", COST_ID),
+                    Updates.setOnInsert("cost", calibrated),
+                    new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+            return winner != null && winner.get("cost") instanceof Number n ? n.intValue() : calibrated;
+        } catch (Exception e) {
+            // Mongo unreachable at startup: hash with a local value, but never rehash down to it (see needsRehash)
+            log.warn("bcrypt cost setting unavailable, calibrating locally: {}", e.getMessage());
+            return calibrate(minCost, maxCost, targetMs);
+        }
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    // Stored hashes look like "$2a$10$..."; anything unparsable is left alone
+    public boolean needsRehash(String encoded) {
+        int stored = costOf(encoded);
+        return stored > 0 && stored < cost;
+    }
+
+    static int costOf(String encoded) {
+        if (encoded == null || encoded.length() < 7 || encoded.charAt(0) != '$' || encoded.charAt(3) != '$'
+                || encoded.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encoded.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int calibrate(int minCost, int maxCost, long targetMs) {
+        BCrypt.hashpw("calibration", BCrypt.gensalt(4)); // class loading / JIT out of the measurement
+
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration", BCrypt.gensalt(minCost));
+        double baseMs = (System.nanoTime() - start) / 1_000_000.0;
+
+        int chosen = minCost;
+        while (chosen < maxCost && baseMs * (1L << (chosen + 1 - minCost)) <= targetMs) {
+            chosen++;
+        }
+        log.info("bcrypt cost {} (cost {} took {} ms, target {} ms)", chosen, minCost, Math.round(baseMs), targetMs);
+        return chosen;
+    }
+}
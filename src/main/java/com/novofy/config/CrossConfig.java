@@ -19,7 +19,7 @@ public class CrossConfig {
                         .allowedOrigins(frontend)
                         .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
-                        .exposedHeaders("Authorization","Content-Type")
+                        .exposedHeaders("Authorization","Content-Type","Retry-After","X-RateLimit-Limit","X-RateLimit-Remaining","Server-Timing")
                         .allowCredentials(true)
                         .maxAge(3600);
             }
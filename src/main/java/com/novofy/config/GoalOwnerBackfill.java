@@ -0,0 +1,103 @@
+package com.novofy.config;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.novofy.model.Goal;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Goals created before Goal.userId existed are only linked through User.goals (DBRefs). This copies each user's
+// id onto the goals in their DBRef list that have no userId yet, then records completion in the migrations
+// collection so later startups skip the scan. Re-running is harmless: only goals still missing userId are touched.
+// Until the migration has completed on this node, GoalRepositoryImpl also matches goals through the DBRef list.
+@Component
+@Order(1)
+public class GoalOwnerBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GoalOwnerBackfill.class);
+
+    static final String MIGRATION_ID = "goal_user_id_backfill";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.mongo.goal-owner-backfill.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean complete;
+
+    public GoalOwnerBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // True once every legacy goal carries userId, so owner queries can rely on it alone
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            // read the marker even when the migration is disabled, so a node that didn't run it still drops the fallback
+            if (mongoTemplate.getCollection("migrations").countDocuments(Filters.eq("_id", MIGRATION_ID)) > 0) {
+                complete = true;
+                return;
+            }
+            if (!enabled) {
+                log.info("Goal owner backfill disabled and not yet completed; owner queries keep the DBRef fallback");
+                return;
+            }
+
+            long users = 0, goals = 0;
+            for (Document u : mongoTemplate.getCollection("users")
+                    .find(Filters.exists("goals.0"))
+                    .projection(Projections.include("goals"))
+                    .batchSize(500)) {
+                List<ObjectId> ids = goalIds(u);
+                if (ids.isEmpty()) continue;
+                users++;
+                goals += mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("_id").in(ids).and("userId").is(null)),
+                        Update.update("userId", u.getObjectId("_id")),
+                        Goal.class).getModifiedCount();
+            }
+
+            mongoTemplate.getCollection("migrations").updateOne(Filters.eq("_id", MIGRATION_ID),
+                    Updates.set("completedAt", new Date()), new UpdateOptions().upsert(true));
+            complete = true;
+            log.info("Goal owner backfill done: {} goal(s) updated across {} user(s)", goals, users);
+        } catch (Exception e) {
+            // reads keep using the DBRef fallback; the next startup retries
+            log.error("Goal owner backfill failed: {}", e.getMessage());
+        }
+    }
+
+    // Ids from a raw users document's goals DBRef array
+    public static List<ObjectId> goalIds(Document user) {
+        List<ObjectId> ids = new ArrayList<>();
+        if (user == null) return ids;
+        List<?> refs = user.getList("goals", Object.class);
+        if (refs == null) return ids;
+        for (Object ref : refs) {
+            if (ref instanceof DBRef dbRef && dbRef.getId() instanceof ObjectId id) ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,170 @@
+package com.novofy.config;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Declares the indexes the hot queries depend on and makes sure they exist at startup, independent of
+// spring.data.mongodb.auto-index-creation. Missing indexes are created; an index on the same keys with
+// different options (unique / TTL) is reported as drift but left alone, since rebuilding it is an ops decision.
+// Failures (e.g. duplicate emails blocking the unique index) are logged per index and never stop startup.
+@Component
+@Order(0)
+public class IndexManager implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexManager.class);
+
+    private record IndexSpec(String collection, Index index) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.mongo.index-manager.enabled:true}")
+    private boolean enabled;
+
+    private volatile List<String> drift = List.of();
+
+    public IndexManager(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    private static List<IndexSpec> specs() {
+        return List.of(
+                // findByEmail / existsByEmail on every login, signup and JWT principal load
+                new IndexSpec("users", new Index().on("email", Sort.Direction.ASC).unique().named("email_unique")),
+                // TokenVersionRegistry: initial load of revoked users, then polls on the change timestamp
+                new IndexSpec("users", new Index().on("tokenVersion", Sort.Direction.ASC)
+                        .partial(PartialIndexFilter.of(Criteria.where("tokenVersion").gt(0))).named("tokenVersion_revoked")),
+                new IndexSpec("users", new Index().on("tokenVersionChangedAt", Sort.Direction.ASC)
+                        .sparse().named("tokenVersionChangedAt")),
+                // findByToken / deleteByToken on reset
+                new IndexSpec("password_reset_tokens", new Index().on("token", Sort.Direction.ASC).named("token")),
+                // expired reset tokens are removed by Mongo itself
+                new IndexSpec("password_reset_tokens", new Index().on("expiryDate", Sort.Direction.ASC)
+                        .expire(Duration.ZERO).named("expiryDate_ttl")),
+                // mirrors the annotations on Goal / Simulation; the compound prefix also serves userId-only lookups
+                new IndexSpec("goals", new Index().on("userId", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("user_created_id")),
+                new IndexSpec("simulations", new Index().on("ownerId", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("owner_created_id")),
+                // goal jobs are only polled for minutes after submission
+                new IndexSpec("goal_jobs", new Index().on("createdAt", Sort.Direction.ASC)
+                        .expire(Duration.ofDays(1)).named("createdAt_ttl")),
+                // MailOutboxDispatcher claim query
+                new IndexSpec("mail_outbox", new Index().on("status", Sort.Direction.ASC)
+                        .on("nextAttemptAt", Sort.Direction.ASC).named("status_nextAttemptAt")),
+                // final rows only carry expireAt, so pending mail never expires
+                new IndexSpec("mail_outbox", new Index().on("expireAt", Sort.Direction.ASC)
+                        .expire(Duration.ZERO).named("expireAt_ttl"))
+        );
+    }
+
+    // Indexes made redundant by a declared one; dropped when present. collection -> index name
+    private static List<String[]> obsolete() {
+        return List.<String[]>of(
+                // single-field userId, a prefix of goals.user_created_id
+                new String[]{"goals", "userId"}
+        );
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+
+        for (String[] o : obsolete()) dropIfPresent(o[0], o[1]);
+
+        List<String> found = new ArrayList<>();
+        for (IndexSpec spec : specs()) {
+            try {
+                ensure(spec, found);
+            } catch (Exception e) {
+                String msg = spec.collection() + "." + spec.index().getIndexOptions().get("name") + ": " + e.getMessage();
+                found.add(msg);
+                log.error("Index check failed for {}", msg);
+            }
+        }
+        drift = List.copyOf(found);
+        if (found.isEmpty()) log.info("Mongo indexes verified ({} declared)", specs().size());
+        else log.warn("Mongo index drift: {}", found);
+    }
+
+    // Problems found by the last run; empty when every declared index matches
+    public List<String> drift() {
+        return drift;
+    }
+
+    private void dropIfPresent(String collection, String name) {
+        try {
+            IndexOperations ops = mongoTemplate.indexOps(collection);
+            if (ops.getIndexInfo().stream().anyMatch(i -> name.equals(i.getName()))) {
+                ops.dropIndex(name);
+                log.info("Dropped redundant index {}.{}", collection, name);
+            }
+        } catch (Exception e) {
+            log.warn("Could not drop index {}.{}: {}", collection, name, e.getMessage());
+        }
+    }
+
+    private void ensure(IndexSpec spec, List<String> found) {
+        IndexOperations ops = mongoTemplate.indexOps(spec.collection());
+        Document wantKeys = spec.index().getIndexKeys();
+        Document wantOptions = spec.index().getIndexOptions();
+        String name = wantOptions.getString("name");
+
+        IndexInfo existing = ops.getIndexInfo().stream()
+                .filter(i -> sameKeys(i, wantKeys))
+                .findFirst()
+                .orElse(null);
+
+        if (existing == null) {
+            ops.ensureIndex(spec.index());
+            log.info("Created index {}.{} {}", spec.collection(), name, wantKeys.toJson());
+            return;
+        }
+
+        boolean wantUnique = Boolean.TRUE.equals(wantOptions.getBoolean("unique"));
+        Long wantTtl = wantOptions.containsKey("expireAfterSeconds")
+                ? ((Number) wantOptions.get("expireAfterSeconds")).longValue() : null;
+        Long haveTtl = existing.getExpireAfter().map(Duration::getSeconds).orElse(null);
+
+        if (existing.isUnique() != wantUnique) {
+            found.add(spec.collection() + "." + existing.getName() + ": unique=" + existing.isUnique() + ", expected " + wantUnique);
+        }
+        if (!Objects.equals(haveTtl, wantTtl)) {
+            found.add(spec.collection() + "." + existing.getName() + ": expireAfterSeconds=" + haveTtl + ", expected " + wantTtl);
+        }
+    }
+
+    // Compound key order matters, so compare field by field in declaration order
+    private static boolean sameKeys(IndexInfo info, Document wantKeys) {
+        List<IndexField> fields = info.getIndexFields();
+        if (fields.size() != wantKeys.size()) return false;
+        int i = 0;
+        for (String key : wantKeys.keySet()) {
+            IndexField f = fields.get(i++);
+            if (!f.getKey().equals(key)) return false;
+            int dir = ((Number) wantKeys.get(key)).intValue();
+            Sort.Direction want = dir < 0 ? Sort.Direction.DESC : Sort.Direction.ASC;
+            if (f.getDirection() != want) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.novofy.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import com.novofy.timing.RequestTimings;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+// Feeds every Mongo command's driver-measured duration into the Server-Timing "db" phase.
+// The sync driver notifies on the calling thread, so the request's RequestTimings is in scope.
+@Configuration
+public class MongoTimingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer requestTimingCommandListener() {
+        return builder -> builder.addCommandListener(new CommandListener() {
+            @Override
+            public void commandSucceeded(CommandSucceededEvent event) {
+                RequestTimings.record(RequestTimings.Phase.DB, event.getElapsedTime(TimeUnit.NANOSECONDS));
+            }
+
+            @Override
+            public void commandFailed(CommandFailedEvent event) {
+                RequestTimings.record(RequestTimings.Phase.DB, event.getElapsedTime(TimeUnit.NANOSECONDS));
+            }
+        });
+    }
+}
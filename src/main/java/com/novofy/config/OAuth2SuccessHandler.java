@@ -3,6 +3,7 @@ package com.novofy.config;
 import com.novofy.jwt.JwtUtil;
 import com.novofy.model.User;
 import com.novofy.repository.UserRepository;
+import com.novofy.service.PrincipalCache;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -24,10 +25,12 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
 
   private final UserRepository userRepository;
   private final JwtUtil jwtUtil;
+  private final PrincipalCache principalCache;
 
-  public OAuth2SuccessHandler(UserRepository userRepository, JwtUtil jwtUtil) {
+  public OAuth2SuccessHandler(UserRepository userRepository, JwtUtil jwtUtil, PrincipalCache principalCache) {
     this.userRepository = userRepository;
     this.jwtUtil = jwtUtil;
+    this.principalCache = principalCache;
   }
 
   @Override
@@ -50,9 +53,12 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
       provider = t.getAuthorizedClientRegistrationId();
     }
 
+    int tokenVersion = 0;
     if (email != null) {
       Optional<User> existing = userRepository.findByEmail(email);
-      if (existing.isEmpty()) {
+      if (existing.isPresent()) {
+        tokenVersion = existing.get().getTokenVersion();
+      } else {
         User u = User.builder()
             .email(email)
             .username(name != null ? name : email)
@@ -63,11 +69,12 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
             .profilePictureUrl("https://www.shutterstock.com/image-vector/blank-avatar-photo-place-holder-600nw-1095249842.jpg")
             .build();
         userRepository.save(u);
+        principalCache.invalidate(email);
       }
     }
 
     // Issue JWT and redirect to SPA callback
-    String jwtToken = jwtUtil.generateToken(email, "USER");
+    String jwtToken = jwtUtil.generateToken(email, "USER", tokenVersion);
     String frontend = "https://nafaverse-uc38.vercel.app/auth/callback";
     // String frontend = "http://localhost:5173/auth/callback";
     String target = frontend
@@ -0,0 +1,47 @@
+package com.novofy.config;
+
+import com.novofy.ratelimit.RateLimitInterceptor;
+import com.novofy.ratelimit.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Per-user budgets for the AI-backed endpoints; each budget has its own bucket per user
+@Configuration
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimiter rateLimiter;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.goals.capacity:5}")
+    private int goalsCapacity;
+
+    @Value("${app.rate-limit.goals.per-hour:20}")
+    private int goalsPerHour;
+
+    @Value("${app.rate-limit.simulations.capacity:10}")
+    private int simulationsCapacity;
+
+    @Value("${app.rate-limit.simulations.per-hour:60}")
+    private int simulationsPerHour;
+
+    public RateLimitConfig(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!enabled) return;
+
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter,
+                        new RateLimiter.Budget("goals", goalsCapacity, goalsPerHour / 3600.0)))
+                .addPathPatterns("/api/goals/create", "/api/goals/create/**");
+
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter,
+                        new RateLimiter.Budget("simulations", simulationsCapacity, simulationsPerHour / 3600.0)))
+                .addPathPatterns("/api/simulations/create", "/api/simulations/create/**", "/api/simulations/batch");
+    }
+}
@@ -0,0 +1,214 @@
+package com.novofy.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novofy.jwt.JwtUtil;
+import com.novofy.model.Goal;
+import com.novofy.model.Simulation;
+import com.novofy.projection.BatchProjectionKernel;
+import com.novofy.projection.BatchProjectionKernels;
+import com.novofy.projection.MonteCarloProjection;
+import com.novofy.projection.ProjectionKernel;
+import com.novofy.projection.SimulationProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Runs the hot paths once before the instance takes traffic, so the first real requests after a deploy don't pay
+// for JIT compilation, Jackson serializer construction, Mongo connection setup and the TLS handshake to OpenAI.
+// Readiness (/readyz on the app port) only flips to ACCEPTING_TRAFFIC on ApplicationReadyEvent, which Spring
+// publishes after all runners return, so the platform health check should point there rather than /health/ping.
+// Each step gets its own time budget; a step that fails or overruns is logged and skipped, never fails startup.
+// Runs after IndexManager so index builds don't compete with the Mongo pings.
+@Component
+@Order(10)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.step-budget-ms:5000}")
+    private long stepBudgetMs;
+
+    // enough iterations for C2 to compile the projection loops
+    @Value("${app.warmup.iterations:2000}")
+    private int iterations;
+
+    @Value("${app.warmup.mongo-connections:8}")
+    private int mongoConnections;
+
+    @Value("${app.warmup.ai-url:https://api.openai.com/v1/models}")
+    private String aiUrl;
+
+    public WarmupRunner(JwtUtil jwtUtil, ObjectMapper objectMapper, MongoTemplate mongoTemplate) {
+        this.jwtUtil = jwtUtil;
+        this.objectMapper = objectMapper;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            step(executor, "projection", this::projection);
+            step(executor, "jwt", this::jwt);
+            step(executor, "jackson", this::jackson);
+            step(executor, "mongo", this::mongo);
+            step(executor, "ai-tls", this::aiTls);
+        } finally {
+            // an overrunning step keeps its thread; don't wait for it
+            executor.shutdownNow();
+        }
+        log.info("Warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void step(ExecutorService executor, String name, Runnable work) {
+        long start = System.nanoTime();
+        Future<?> f = executor.submit(work);
+        try {
+            f.get(stepBudgetMs, TimeUnit.MILLISECONDS);
+            log.info("Warm-up {} done in {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException e) {
+            f.cancel(true);
+            log.warn("Warm-up {} exceeded {} ms, skipped", name, stepBudgetMs);
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Warm-up {} failed: {}", name, e.getCause() != null ? e.getCause().toString() : e.toString());
+        }
+    }
+
+    private boolean overBudget(long deadline) {
+        return System.nanoTime() - deadline > 0 || Thread.currentThread().isInterrupted();
+    }
+
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stepBudgetMs);
+    }
+
+    // Goal, simulation, batch and Monte Carlo math with varied inputs so the compiled code isn't specialised to one case
+    private void projection() {
+        long deadline = deadline();
+        BatchProjectionKernel kernel = BatchProjectionKernels.best();
+        int n = 256;
+        double[] monthly = new double[n], roi = new double[n], out = new double[n];
+        int[] years = new int[n];
+        for (int i = 0; i < n; i++) {
+            monthly[i] = 1000 + i;
+            roi[i] = i % 25;
+            years[i] = 1 + i % 40;
+        }
+
+        double sink = 0;
+        for (int i = 0; i < iterations && !overBudget(deadline); i++) {
+            int y = 1 + i % 40, r = i % 25;
+            sink += ProjectionKernel.yearlyBalances(0.0, 5000, r, y)[y - 1];
+            sink += ProjectionKernel.annuityFactor(r, y);
+            sink += SimulationProjection.solveMonthly(BigDecimal.valueOf(1_000_000), BigDecimal.valueOf(50_000), r, y).doubleValue();
+            sink += SimulationProjection.yearlyBalances(BigDecimal.valueOf(50_000), BigDecimal.valueOf(5000), r, y).size();
+            kernel.project(monthly, roi, years, out);
+            sink += out[i % n];
+        }
+        for (int i = 0; i < 3 && !overBudget(deadline); i++) {
+            sink += MonteCarloProjection.run(50_000, 5000, 12, 15, 6, 2, 20, MonteCarloProjection.CHUNK_SIZE * 2, i).nominalP50()[19];
+        }
+        if (Double.isNaN(sink)) log.debug("Warm-up projection produced NaN");
+    }
+
+    // Sign and parse distinct tokens through verifyUncached, so the shared claims cache and its exported stats
+    // are untouched. The tokens are for a non-routable subject and are never handed out.
+    private void jwt() {
+        long deadline = deadline();
+        int rounds = Math.min(iterations, 200);
+        for (int i = 0; i < rounds && !overBudget(deadline); i++) {
+            String token = jwtUtil.generateToken("warmup-" + i + "@localhost", "USER");
+            jwtUtil.verifyUncached(token);
+        }
+    }
+
+    private void jackson() {
+        long deadline = deadline();
+        Goal goal = new Goal();
+        goal.setGoalName("warmup");
+        goal.setCity("warmup");
+        goal.setEstimatedCost(BigDecimal.valueOf(1_000_000));
+        goal.setTargetYear(2040);
+        goal.setMonthlySavingRequired(BigDecimal.valueOf(5000));
+        goal.setRoiRate(12);
+        goal.setInflationRate(6);
+        goal.setCreatedAt(LocalDateTime.now());
+        List<Goal.GoalGraphData> goalGraph = new ArrayList<>();
+        for (int y = 0; y < 20; y++) goalGraph.add(new Goal.GoalGraphData(2025 + y, BigDecimal.valueOf(y * 1000L)));
+        goal.setGraphData(goalGraph);
+
+        Simulation sim = new Simulation();
+        sim.setCity("warmup");
+        sim.setOneTimeInvestment(BigDecimal.valueOf(50_000));
+        sim.setMonthlyInvestment(BigDecimal.valueOf(5000));
+        sim.setDuration(List.of(20));
+        sim.setInflationRate(List.of(6));
+        sim.setRoiRate(12);
+        sim.setCreatedAt(LocalDateTime.now());
+        List<Simulation.GoalGraphData> simGraph = new ArrayList<>();
+        for (int y = 0; y < 20; y++) simGraph.add(new Simulation.GoalGraphData(y + 1, BigDecimal.valueOf(y * 1000L)));
+        sim.setGraphData(simGraph);
+
+        int rounds = Math.min(iterations, 500);
+        try {
+            for (int i = 0; i < rounds && !overBudget(deadline); i++) {
+                objectMapper.readValue(objectMapper.writeValueAsBytes(goal), Goal.class);
+                objectMapper.readValue(objectMapper.writeValueAsBytes(sim), Simulation.class);
+            }
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Concurrent pings so the driver opens several pooled connections (TCP + TLS + auth) instead of one
+    private void mongo() {
+        List<CompletableFuture<Void>> pings = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < mongoConnections; i++) {
+                pings.add(CompletableFuture.runAsync(() -> mongoTemplate.executeCommand("{ ping: 1 }"), pool));
+            }
+            CompletableFuture.allOf(pings.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    // Resolves DNS, loads the TLS stack and seeds the JSSE session cache for the OpenAI host; the status is irrelevant
+    // (no API key is sent, so 401 is expected). OpenAiApi builds its own RestClient, so this warms the shared stack
+    // rather than that client's pooled connection.
+    private void aiTls() {
+        try {
+            RestClient.create().head().uri(aiUrl).retrieve().toBodilessEntity();
+        } catch (org.springframework.web.client.RestClientResponseException expected) {
+            // any HTTP status means the handshake completed
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.novofy.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -41,6 +42,8 @@ public class securityConfig {
             .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                // async re-dispatch of SSE responses; the original request was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/login","/api/auth/signup","/api/auth/google/login", "/api/password/**").permitAll()
                 .anyRequest().authenticated()
             )
@@ -69,9 +72,10 @@ public class securityConfig {
         return config.getAuthenticationManager();
     }
 
+    // Cost calibrated at startup; existing hashes with another cost are upgraded on login (UserService.loginUser)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(BcryptWorkFactorPolicy workFactor) {
+        return new BCryptPasswordEncoder(workFactor.cost());
     }
 
     @Bean
@@ -80,7 +84,7 @@ public class securityConfig {
         cfg.setAllowedOrigins(java.util.List.of("https://nafaverse-uc38.vercel.app","http://localhost:5173"));
         cfg.setAllowedMethods(java.util.List.of("GET","POST","PUT","PATCH","DELETE","OPTIONS"));
         cfg.setAllowedHeaders(java.util.List.of("*"));
-        cfg.setExposedHeaders(java.util.List.of("Authorization","Content-Type"));
+        cfg.setExposedHeaders(java.util.List.of("Authorization","Content-Type","Retry-After","X-RateLimit-Limit","X-RateLimit-Remaining","Server-Timing"));
         cfg.setAllowCredentials(true);
         cfg.setMaxAge(3600L);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -9,6 +9,7 @@ import com.novofy.config.securityConfig;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.net.URI;
 import java.util.Optional;
@@ -27,6 +28,9 @@ public class AuthController {
             return ResponseEntity.ok(
                 AuthResponse.builder().statusCode(200).error(null).build()
             );
+        } catch (ResponseStatusException ex) {
+            // e.g. 503 when the password hashing pool is saturated
+            return rejected(ex);
         } catch (RuntimeException e) {
             return ResponseEntity.status(409).body(
                 AuthResponse.builder().statusCode(409).error(e.getMessage()).build()
@@ -41,18 +45,18 @@ public class AuthController {
     @PostMapping(value = "/login", consumes = "application/json", produces = "application/json")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
         try {
-            String token = userService.loginUser(loginRequest);
-            String email = loginRequest.getEmail();
-            String username = userService.getUserByEmail(email).map(User::getUsername).orElse("");
+            UserService.LoginResult login = userService.loginUser(loginRequest);
             return ResponseEntity.ok(
                 AuthResponse.builder()
                     .statusCode(200)
-                    .token(token)
-                    .username(username)
-                    .email(email)
+                    .token(login.token())
+                    .username(login.username())
+                    .email(login.email())
                     .error(null)
                     .build()
             );
+        } catch (ResponseStatusException ex) {
+            return rejected(ex);
         } catch (RuntimeException e) {
             return ResponseEntity.status(401).body(
                 AuthResponse.builder().statusCode(401).error("Login failed: " + e.getMessage()).build()
@@ -64,6 +68,12 @@ public class AuthController {
         }
     }
 
+    private static ResponseEntity<AuthResponse> rejected(ResponseStatusException ex) {
+        return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(
+            AuthResponse.builder().statusCode(ex.getStatusCode().value()).error(ex.getReason()).build()
+        );
+    }
+
     // Used by frontend to fetch current user from JWT
     @GetMapping(value = "/me", produces = "application/json")
     public ResponseEntity<?> me() {
@@ -1,19 +1,43 @@
 package com.novofy.controller;
 
+import com.novofy.config.securityConfig;
 import com.novofy.dto.CreateGoalRequest;
+import com.novofy.dto.GoalJobResponse;
 import com.novofy.model.Goal;
+import com.novofy.service.GoalJobService;
 import com.novofy.service.GoalService;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api/goals")
 @RequiredArgsConstructor
 public class GoalController {
 
+    private static final Logger log = LoggerFactory.getLogger(GoalController.class);
+
     private final GoalService goalService;
+    private final GoalJobService goalJobService;
+
+    @Autowired
+    @Qualifier("aiStreamExecutor")
+    private SimpleAsyncTaskExecutor aiStreamExecutor;
+
+    @Value("${app.ai.stream.timeout-ms:120000}")
+    private long streamTimeoutMs;
 
     // POST - create a new Goal
     @PostMapping(path = "/create", consumes = "application/json", produces = "application/json")
@@ -29,7 +53,7 @@ public class GoalController {
             return ResponseEntity.ok(savedGoal);
         } catch (ResponseStatusException ex) {
             // Preserve status from service (e.g., 429 for AI quota)
-            return ResponseEntity.status(ex.getStatusCode()).body(ex.getReason());
+            return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getReason());
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(ex.getMessage());
         } catch (Exception e) {
@@ -38,34 +62,101 @@ public class GoalController {
         }
     }
 
-    // GET - fetch all goals for current user
-//    @GetMapping("/my")
-//    public ResponseEntity<?> getMyGoals() {
-//        try {
-//            return ResponseEntity.ok(goalService.getUserGoals());
-//        } catch (Exception e) {
-//            return ResponseEntity.status(401).body("Unauthorized or error fetching goals");
-//        }
-//    }
+    // POST - same as /create but streams progress over SSE: "chunk" events while the AI answers,
+    // "graph" once the server-side projection is computed, then the saved "goal"
+    @PostMapping(path = "/create/stream", consumes = "application/json", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter createGoalStream(@RequestBody CreateGoalRequest request) {
+        String email = securityConfig.getCurrentUserEmail();
+        if (email == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        aiStreamExecutor.execute(() -> {
+            try {
+                SseSupport.send(emitter, "status", "started");
+                Goal savedGoal = goalService.createGoalStreaming(
+                    email,
+                    request.getGoalName(),
+                    request.getCity(),
+                    request.getTargetYear(),
+                    request.getPrompt(),
+                    SseSupport.listener(emitter)
+                );
+                SseSupport.send(emitter, "goal", savedGoal);
+                emitter.complete();
+            } catch (ResponseStatusException ex) {
+                SseSupport.fail(emitter, ex.getStatusCode().value(), ex.getReason());
+            } catch (IllegalArgumentException ex) {
+                SseSupport.fail(emitter, 400, ex.getMessage());
+            } catch (Exception e) {
+                log.warn("Goal stream failed", e);
+                SseSupport.fail(emitter, 500, "Server error: " + e.getMessage());
+            }
+        });
+        return emitter;
+    }
+
+    // POST - queue goal creation and return 202 with a job id; poll /jobs/{jobId} for the result
+    @PostMapping(path = "/create/async", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<?> createGoalAsync(@RequestBody CreateGoalRequest request) {
+        String email = securityConfig.getCurrentUserEmail();
+        if (email == null) return ResponseEntity.status(401).body("Unauthorized");
+        try {
+            GoalJobResponse job = goalJobService.submit(email, request);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/goals/jobs/" + job.getJobId()))
+                .body(job);
+        } catch (ResponseStatusException ex) {
+            return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getReason());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // GET - status of an async goal creation job (any node can answer, state lives in Mongo)
+    @GetMapping(path = "/jobs/{jobId}", produces = "application/json")
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+        String email = securityConfig.getCurrentUserEmail();
+        if (email == null) return ResponseEntity.status(401).body("Unauthorized");
+        try {
+            return ResponseEntity.ok(GoalJobResponse.from(goalJobService.getJob(jobId, email)));
+        } catch (ResponseStatusException ex) {
+            return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getReason());
+        }
+    }
+
+    // GET - current user's goals, newest first; pass nextCursor back as ?cursor= for the following page.
+    // originalPrompt is never returned; graphData only with ?includeGraph=true
+    @GetMapping(path = "/my", produces = "application/json")
+    public ResponseEntity<?> getMyGoals(@RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "20") int limit,
+                                        @RequestParam(defaultValue = "false") boolean includeGraph) {
+        try {
+            return ResponseEntity.ok(goalService.getUserGoals(cursor, limit, includeGraph));
+        } catch (ResponseStatusException ex) {
+            return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getReason());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
 
-    // GET - fetch single goal by ID
-//    @GetMapping("/{goalId}")
-//    public ResponseEntity<?> getGoalById(@PathVariable String goalId) {
-//        try {
-//            return ResponseEntity.ok(goalService.getGoalById(goalId));
-//        } catch (Exception e) {
-//            return ResponseEntity.notFound().build();
-//        }
-//    }
-//
-//    // DELETE - delete goal
-//    @DeleteMapping("/{goalId}")
-//    public ResponseEntity<?> deleteGoal(@PathVariable String goalId) {
-//        try {
-//            goalService.deleteGoal(goalId);
-//            return ResponseEntity.ok("Goal deleted successfully");
-//        } catch (Exception e) {
-//            return ResponseEntity.badRequest().body("Error deleting goal: " + e.getMessage());
-//        }
-//    }
+    // GET - fetch single goal by ID (owner only)
+    @GetMapping(path = "/{goalId}", produces = "application/json")
+    public ResponseEntity<?> getGoalById(@PathVariable String goalId) {
+        try {
+            return ResponseEntity.ok(goalService.getGoalById(goalId));
+        } catch (ResponseStatusException ex) {
+            return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getReason());
+        }
+    }
+
+    // DELETE - delete goal (owner only) and drop its reference from the user
+    @DeleteMapping("/{goalId}")
+    public ResponseEntity<?> deleteGoal(@PathVariable String goalId) {
+        try {
+            goalService.deleteGoal(goalId);
+            return ResponseEntity.ok("Goal deleted successfully");
+        } catch (ResponseStatusException ex) {
+            return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getReason());
+        }
+    }
 }
@@ -1,27 +1,111 @@
 package com.novofy.controller;
 
+import com.novofy.dto.SimulationBatchRequest;
 import com.novofy.dto.SimulationRequest;
 import com.novofy.model.Simulation;
 import com.novofy.service.SimulationService;
+import com.novofy.config.securityConfig;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/simulations")
 @RequiredArgsConstructor
 public class SimulationController {
 
+    private static final Logger log = LoggerFactory.getLogger(SimulationController.class);
+
     private final SimulationService simulationService;
 
+    @Autowired
+    @Qualifier("aiStreamExecutor")
+    private SimpleAsyncTaskExecutor aiStreamExecutor;
+
+    @Value("${app.ai.stream.timeout-ms:120000}")
+    private long streamTimeoutMs;
+
     @PostMapping(path = "/create", consumes = "application/json", produces = "application/json")
     public ResponseEntity<?> create(@RequestBody SimulationRequest request) {
         try {
             Simulation saved = simulationService.createSimulation(request);
             return ResponseEntity.ok(saved);
+        } catch (ResponseStatusException ex) {
+            // Preserve status from service (e.g., 504 when a shared AI request times out)
+            return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getReason());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().body("Error creating simulation: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // History of the current user, newest first; pass nextCursor back as ?cursor= for the following page
+    @GetMapping(produces = "application/json")
+    public ResponseEntity<?> history(@RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "20") int limit) {
+        String email = securityConfig.getCurrentUserEmail();
+        if (email == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized");
+        try {
+            return ResponseEntity.ok(simulationService.getHistory(email, cursor, limit));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // Comparison grid in one round trip: durations x roiRates x inflationRates, all computed locally
+    @PostMapping(path = "/batch", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<?> batch(@RequestBody SimulationBatchRequest request) {
+        String email = securityConfig.getCurrentUserEmail();
+        if (email == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized");
+        try {
+            return ResponseEntity.ok(simulationService.createBatchSimulation(email, request));
+        } catch (ResponseStatusException ex) {
+            return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getReason());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (Exception e) {
+            log.warn("Simulation batch failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error creating simulation batch: " + e.getMessage());
+        }
+    }
+
+    // Streaming variant of /create: "chunk" events while the AI answers, "graph", then the saved "simulation"
+    @PostMapping(path = "/create/stream", consumes = "application/json", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter createStream(@RequestBody SimulationRequest request) {
+        String email = securityConfig.getCurrentUserEmail();
+        if (email == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        try {
+            simulationService.validate(request);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        aiStreamExecutor.execute(() -> {
+            try {
+                SseSupport.send(emitter, "status", "started");
+                Simulation saved = simulationService.createSimulationStreaming(email, request, SseSupport.listener(emitter));
+                SseSupport.send(emitter, "simulation", saved);
+                emitter.complete();
+            } catch (ResponseStatusException ex) {
+                SseSupport.fail(emitter, ex.getStatusCode().value(), ex.getReason());
+            } catch (IllegalArgumentException ex) {
+                SseSupport.fail(emitter, 400, ex.getMessage());
+            } catch (Exception e) {
+                log.warn("Simulation stream failed", e);
+                SseSupport.fail(emitter, 500, "Server error: " + e.getMessage());
+            }
+        });
+        return emitter;
+    }
+}
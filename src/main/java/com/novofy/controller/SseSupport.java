@@ -0,0 +1,43 @@
+package com.novofy.controller;
+
+import com.novofy.ai.AiStreamListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Event plumbing shared by the streaming create endpoints
+final class SseSupport {
+
+    private SseSupport() {
+    }
+
+    // "chunk" carries raw AI text as it arrives; named stages (e.g. "graph") are sent as their own events
+    static AiStreamListener listener(SseEmitter emitter) {
+        return new AiStreamListener() {
+            @Override
+            public void onChunk(String text) {
+                send(emitter, "chunk", Map.of("text", text));
+            }
+
+            @Override
+            public void onStage(String stage, Object payload) {
+                send(emitter, stage, payload);
+            }
+        };
+    }
+
+    static void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // client went away; keep processing so the result is still persisted
+        }
+    }
+
+    // Errors are reported in-band because the 200 status line has already been sent
+    static void fail(SseEmitter emitter, int status, String message) {
+        send(emitter, "error", Map.of("status", status, "message", message == null ? "" : message));
+        emitter.complete();
+    }
+}
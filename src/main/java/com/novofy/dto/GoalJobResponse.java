@@ -0,0 +1,35 @@
+package com.novofy.dto;
+
+import com.novofy.model.GoalJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GoalJobResponse {
+    private String jobId;
+    private String status;
+    private String goalId;
+    private Integer errorStatus;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static GoalJobResponse from(GoalJob job) {
+        return GoalJobResponse.builder()
+                .jobId(job.getId() == null ? null : job.getId().toString())
+                .status(job.getStatus())
+                .goalId(job.getGoalId() == null ? null : job.getGoalId().toString())
+                .errorStatus(job.getErrorStatus())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+}
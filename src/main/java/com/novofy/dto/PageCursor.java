@@ -0,0 +1,33 @@
+package com.novofy.dto;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset cursor for lists sorted by (createdAt desc, _id desc): the last item's sort key,
+// base64url("<createdAt ISO>|<objectId hex>"). The _id breaks ties between equal timestamps.
+public record PageCursor(LocalDateTime createdAt, ObjectId id) {
+
+    public static PageCursor after(LocalDateTime createdAt, ObjectId id) {
+        return new PageCursor(createdAt, id);
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null/blank means "first page"; anything unparsable is a client error
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, sep)), new ObjectId(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.novofy.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Scenario grid for /api/simulations/batch: every durations x roiRates x inflationRates combination
+// is projected with the local engine; no AI involved
+@Data
+public class SimulationBatchRequest {
+    private String city;
+    private BigDecimal oneTimeInvestment;   // optional (default 0)
+    private BigDecimal monthlyInvestment;   // optional; if null, solved per scenario from targetAmount
+    private BigDecimal targetAmount;        // optional; required when monthlyInvestment is null
+    private List<Integer> durations;        // required, years > 0
+    private List<Integer> roiRates;         // optional (default [12])
+    private List<Integer> inflationRates;   // optional (default [6])
+}
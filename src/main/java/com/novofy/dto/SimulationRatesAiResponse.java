@@ -0,0 +1,10 @@
+package com.novofy.dto;
+
+import lombok.Data;
+
+// What the local engine asks the AI for; the series itself is computed by SimulationProjection
+@Data
+public class SimulationRatesAiResponse {
+    private Integer roiRate;       // annual %
+    private Integer inflationRate; // annual %
+}
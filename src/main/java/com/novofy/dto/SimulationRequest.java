@@ -14,4 +14,11 @@ public class SimulationRequest {
     private Integer roiRate;                // optional; if null, AI can pick a reasonable default
     private Integer inflationRate;          // optional; if null, AI can pick a reasonable default
     private String prompt;                  // optional user instructions
+
+    // Monte Carlo mode (no AI involved in the bands)
+    private String mode;                    // optional; "monte_carlo" adds P10/P50/P90 bands, default deterministic
+    private Integer paths;                  // optional (default 10000, max 100000)
+    private Long seed;                      // optional; same seed + inputs => same bands
+    private Integer roiVolatility;          // optional; annual std dev in % (default 15)
+    private Integer inflationVolatility;    // optional; annual std dev in % (default 2)
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.novofy.jwt;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -8,16 +10,20 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import com.novofy.service.UserService;
+import com.novofy.timing.RequestTimings;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
@@ -27,10 +33,20 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Lazy
     @Autowired
     private UserService userService;
 
+    // When enabled, the principal is rebuilt from the signed "role" claim without a user lookup
+    @Value("${app.jwt.stateless-auth:false}")
+    private boolean statelessAuth;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -67,13 +83,24 @@ public class JwtFilter extends OncePerRequestFilter {
 
         if (token != null) {
             try {
-                boolean valid = jwtUtil.isValid(token);
-                logger.debug("jwtUtil.isValid => {}", valid);
-                if (valid) {
-                    String email = jwtUtil.extractEmail(token);
+                // single (cached) verification instead of isValid + extractEmail parsing twice
+                long verifyStart = System.nanoTime();
+                Claims claims = jwtUtil.verify(token);
+                long verifyNanos = System.nanoTime() - verifyStart;
+                meterRegistry.timer("jwt.verify", "result", claims != null ? "valid" : "invalid")
+                        .record(verifyNanos, TimeUnit.NANOSECONDS);
+                RequestTimings.record(RequestTimings.Phase.JWT, verifyNanos);
+                logger.debug("jwtUtil.verify => {}", claims != null);
+                if (claims != null) {
+                    String email = claims.getSubject();
                     logger.debug("Email from token => {}", email);
-                    if (email != null) {
-                        UserDetails user = userService.loadUserByUsername(email);
+                    if (email != null && !tokenVersions.isCurrent(email, JwtUtil.tokenVersion(claims))) {
+                        logger.debug("Token for {} has been revoked (ver={})", email, JwtUtil.tokenVersion(claims));
+                    } else if (email != null) {
+                        String role = claims.get("role", String.class);
+                        UserDetails user = (statelessAuth && role != null)
+                            ? User.withUsername(email).password("").roles(role).build()
+                            : RequestTimings.time(RequestTimings.Phase.USER, () -> userService.loadUserByUsername(email));
                         UsernamePasswordAuthenticationToken auth =
                             new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
                         auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
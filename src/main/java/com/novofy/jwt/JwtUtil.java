@@ -1,19 +1,30 @@
 package com.novofy.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
 
     @Value("${app.jwt.secret:mysecretkeymysecretkeymysecretkey!as}")
     private String secret;
@@ -21,17 +32,52 @@ public class JwtUtil {
     @Value("${app.jwt.expiration-ms:604800000}") // 7 days default
     private long expirationMs;
 
+    @Value("${app.jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
     private SecretKey key;
 
+    private JwtParser parser;
+
+    // Verified claims keyed by SHA-256 of the token; each entry lives until the token's own exp
+    private Cache<String, Claims> claimsCache;
+
     @PostConstruct
     void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        long ttlMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return expireAfterCreate(digest, claims, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
     }
 
     // Generate JWT token
     public String generateToken(String email, String role) {
+        return generateToken(email, role, 0);
+    }
+
+    public String generateToken(String email, String role, int tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
+        claims.put("ver", tokenVersion);
 
         Date now = new Date();
         Date exp = new Date(now.getTime() + expirationMs);
@@ -45,35 +91,84 @@ public class JwtUtil {
                 .compact();
     }
 
-    public String extractEmail(String token) {
+    // Verify signature and expiry once; repeated calls with the same token are served from the cache.
+    // Returns null for invalid or expired tokens.
+    public Claims verify(String token) {
+        if (token == null || token.isBlank()) return null;
+
+        String digest = digest(token);
+        Claims cached = claimsCache.getIfPresent(digest);
+        if (cached != null) {
+            return notExpired(cached) ? cached : null;
+        }
+
+        Claims c = parseClaims(token);
+        if (!notExpired(c)) return null;
+        claimsCache.put(digest, c);
+        return c;
+    }
+
+    // Same checks as verify() without reading or filling the claims cache, so callers such as the startup
+    // warm-up don't leave entries behind or skew the cache's hit/miss stats
+    public Claims verifyUncached(String token) {
+        if (token == null || token.isBlank()) return null;
         Claims c = parseClaims(token);
+        return notExpired(c) ? c : null;
+    }
+
+    public String extractEmail(String token) {
+        Claims c = verify(token);
         return c != null ? c.getSubject() : null;
     }
 
     public String extractRole(String token) {
-        Claims c = parseClaims(token);
+        Claims c = verify(token);
         return c != null ? (String) c.get("role") : null;
     }
 
     public boolean isValid(String token) {
-        Claims c = parseClaims(token);
-        return c != null && c.getExpiration() != null && c.getExpiration().after(new Date());
+        return verify(token) != null;
     }
 
     public boolean validateToken(String token, String email) {
-        Claims c = parseClaims(token);
+        Claims c = verify(token);
         return c != null
                 && email != null
-                && email.equals(c.getSubject())
-                && c.getExpiration() != null
-                && c.getExpiration().after(new Date());
+                && email.equals(c.getSubject());
+    }
+
+    // Tokens issued before versioning carry no "ver" claim and count as version 0
+    public static int tokenVersion(Claims claims) {
+        Integer v = claims.get("ver", Integer.class);
+        return v != null ? v : 0;
+    }
+
+    public CacheStats claimsCacheStats() {
+        return claimsCache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, claimsCache, "jwt.claims");
+    }
+
+    private static boolean notExpired(Claims c) {
+        return c != null && c.getExpiration() != null && c.getExpiration().after(new Date());
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
     }
 
     private Claims parseClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
+            return parser
                     .parseClaimsJws(token)
                     .getBody();
         } catch (JwtException | IllegalArgumentException e) {
@@ -0,0 +1,66 @@
+package com.novofy.jwt;
+
+import com.novofy.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Minimum accepted token version per user. Only users that have ever had their tokens revoked
+// (tokenVersion > 0) are tracked, so the table stays small. Each node loads it once from Mongo, then polls
+// only for users whose tokenVersionChangedAt moved since the previous poll (both queries are index-backed,
+// see IndexManager), and updates it immediately for revocations it performs itself.
+// Polls look back overlap-ms past the previous start to absorb clock skew between nodes.
+@Component
+public class TokenVersionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    @Value("${app.jwt.token-version.overlap-ms:60000}")
+    private long overlapMs;
+
+    // start of the last successful refresh; null until the initial full load
+    private volatile LocalDateTime lastRefresh;
+
+    public TokenVersionRegistry(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public boolean isCurrent(String email, int tokenVersion) {
+        return tokenVersion >= versions.getOrDefault(email, 0);
+    }
+
+    public void update(String email, int version) {
+        versions.merge(email, version, Math::max);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.jwt.token-version.refresh-ms:30000}")
+    public void refresh() {
+        try {
+            LocalDateTime start = LocalDateTime.now();
+            Query q = lastRefresh == null
+                    ? new Query(Criteria.where("tokenVersion").gt(0))
+                    : new Query(Criteria.where("tokenVersionChangedAt").gte(lastRefresh.minusNanos(overlapMs * 1_000_000)));
+            q.fields().include("email").include("tokenVersion");
+            // versions only ever increase, so merging in place can't lose a concurrent update() the way
+            // swapping in a fresh map would
+            for (User u : mongoTemplate.find(q, User.class)) {
+                if (u.getEmail() != null) versions.merge(u.getEmail(), u.getTokenVersion(), Math::max);
+            }
+            lastRefresh = start;
+        } catch (Exception e) {
+            log.warn("Token version refresh failed: {}", e.getMessage());
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -14,6 +15,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Document(collection = "goals")
+// Backs the keyset-paginated "my goals" listing (GoalRepositoryImpl)
+@CompoundIndex(name = "user_created_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,6 +25,10 @@ public class Goal {
     @Id
     private ObjectId goalId;
 
+    // Owner; lets per-user queries hit goals directly instead of resolving User.goals.
+    // Served by the user_created_id prefix, so no single-field index.
+    private ObjectId userId;
+
     private String originalPrompt;
 
     private String goalName;
@@ -0,0 +1,47 @@
+package com.novofy.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Asynchronous goal creation request; stored in Mongo so any node can answer status polls.
+// Expired one day after createdAt by a TTL index (IndexManager).
+@Document(collection = "goal_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoalJob {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private ObjectId id;
+
+    private String ownerEmail;
+
+    private String status;
+
+    private String goalName;
+    private String city;
+    private int targetYear;
+    private String prompt;
+
+    private ObjectId goalId;   // set once SUCCEEDED
+
+    private Integer errorStatus; // HTTP status the synchronous endpoint would have returned
+    private String error;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime heartbeatAt; // refreshed by the node holding the job; a stale one means that node is gone
+}
@@ -0,0 +1,44 @@
+package com.novofy.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Outgoing email written in the request and delivered later by MailOutboxDispatcher
+@Document(collection = "mail_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailOutbox {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENDING = "SENDING";
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private ObjectId id;
+
+    private String to;
+    private String subject;
+    private String body;
+
+    private String status;
+
+    private int attempts;
+    private LocalDateTime nextAttemptAt; // earliest time the dispatcher may (re)try
+    private LocalDateTime leaseUntil;    // while SENDING; an expired lease means the claiming node died
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime sentAt;
+    private LocalDateTime expireAt;      // set on SENT / FAILED; the TTL index deletes the row at this time
+}
@@ -6,6 +6,7 @@ import java.util.List;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -13,6 +14,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Document(collection = "simulations")
+// Backs the per-user history listing (SimulationRepositoryImpl)
+@CompoundIndex(name = "owner_created_id", def = "{'ownerId': 1, 'createdAt': -1, '_id': -1}")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -20,7 +23,7 @@ public class Simulation {
     @Id
     private ObjectId id;
 
-
+    private ObjectId ownerId; // user who ran the simulation
 
     private String originalPrompt;
     private String city;
@@ -36,6 +39,12 @@ public class Simulation {
 
     private List<GoalGraphData> graphData;
 
+    // Only set for mode=monte_carlo
+    private MonteCarloBands monteCarlo;
+
+    // Only set for batch simulations: one entry per duration x ROI x inflation combination
+    private List<Scenario> scenarios;
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
@@ -43,4 +52,40 @@ public class Simulation {
         private int year;
         private BigDecimal projectedValue;
     }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Scenario {
+        private int durationYears;
+        private int roiRate;
+        private int inflationRate;
+        private BigDecimal monthlyInvestment;
+        private BigDecimal totalInvestment;
+        private BigDecimal totalAmount;
+        private BigDecimal realAmount;       // totalAmount in today's money
+        private List<GoalGraphData> graphData;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class MonteCarloBands {
+        private int paths;
+        private long seed;
+        private int roiVolatility;
+        private int inflationVolatility;
+        private List<PercentileBand> nominal;
+        private List<PercentileBand> real;   // deflated by each path's own inflation
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PercentileBand {
+        private int year;
+        private BigDecimal p10;
+        private BigDecimal p50;
+        private BigDecimal p90;
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -55,4 +56,8 @@ public class User {
 
     private String provider; // e.g., "google" or "local"
 
+    private int tokenVersion; // bumped on password reset; tokens carrying an older "ver" are rejected
+
+    private LocalDateTime tokenVersionChangedAt; // set with every bump; TokenVersionRegistry polls on it
+
 }
@@ -0,0 +1,16 @@
+package com.novofy.projection;
+
+// Bulk counterpart of ProjectionKernel.annuityFactor for reprojecting many goals at once:
+//   out[i] = monthly[i] * ((1 + r/12)^(12 * years[i]) - 1) / (r/12),  r = roiRatePercent[i] / 100
+// evaluated as monthly * expm1(12n * log1p(r/12)) / (r/12), which vectorises and stays accurate for small rates.
+// Obtain an instance through BatchProjectionKernels.best().
+public interface BatchProjectionKernel {
+
+    void project(double[] monthly, double[] roiRatePercent, int[] years, double[] out, int length);
+
+    default void project(double[] monthly, double[] roiRatePercent, int[] years, double[] out) {
+        project(monthly, roiRatePercent, years, out, out.length);
+    }
+
+    String name();
+}
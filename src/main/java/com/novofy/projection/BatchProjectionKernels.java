@@ -0,0 +1,47 @@
+package com.novofy.projection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Picks the batch kernel once per JVM: the Vector API implementation when it was built in (mvn -Pvector) and
+// jdk.incubator.vector is in the boot layer (--add-modules jdk.incubator.vector), otherwise the scalar loop.
+public final class BatchProjectionKernels {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchProjectionKernels.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_IMPL = "com.novofy.projection.VectorBatchProjectionKernel";
+
+    private static final BatchProjectionKernel BEST = load();
+
+    private BatchProjectionKernels() {
+    }
+
+    public static BatchProjectionKernel best() {
+        return BEST;
+    }
+
+    public static BatchProjectionKernel scalar() {
+        return new ScalarBatchProjectionKernel();
+    }
+
+    private static BatchProjectionKernel load() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("Batch projection kernel: scalar ({} not enabled)", VECTOR_MODULE);
+            return scalar();
+        }
+        try {
+            BatchProjectionKernel k = (BatchProjectionKernel) Class.forName(VECTOR_IMPL)
+                    .getDeclaredConstructor()
+                    .newInstance();
+            log.info("Batch projection kernel: {}", k.name());
+            return k;
+        } catch (ClassNotFoundException e) {
+            log.info("Batch projection kernel: scalar (built without the vector profile)");
+            return scalar();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Vector batch projection kernel unavailable, using scalar: {}", e.toString());
+            return scalar();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.novofy.projection;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Stochastic counterpart of ProjectionKernel: every path draws a normal annual return and inflation per year
+// and compounds the same lump sum + monthly contributions (monthly compounding at r / 12).
+// Paths are split into fixed-size chunks, each owning a SplittableRandom split off a seeded root in chunk order,
+// so the output depends only on the seed and path count, never on how the common pool schedules the chunks.
+// State is two primitive arrays (balance, price level) advanced year by year; percentiles are taken per year
+// with an in-place selection on a scratch copy.
+public final class MonteCarloProjection {
+
+    public static final int CHUNK_SIZE = 4096;
+
+    // Floor for a drawn annual rate so (1 + r) stays positive
+    private static final double MIN_RATE = -0.99;
+
+    private MonteCarloProjection() {
+    }
+
+    // Per-year percentiles, index k = 0..years-1 holds the state after k + 1 years
+    public record Bands(double[] nominalP10, double[] nominalP50, double[] nominalP90,
+                        double[] realP10, double[] realP50, double[] realP90) {
+    }
+
+    public static Bands run(double oneTime, double monthly,
+                            double roiMeanPct, double roiVolPct,
+                            double inflationMeanPct, double inflationVolPct,
+                            int years, int paths, long seed) {
+        if (years <= 0 || paths <= 0) throw new IllegalArgumentException("years and paths must be > 0");
+
+        int chunks = (paths + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] rngs = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) rngs[c] = root.split();
+
+        double[] balance = new double[paths];
+        double[] priceLevel = new double[paths];
+        Arrays.fill(balance, oneTime);
+        Arrays.fill(priceLevel, 1.0);
+
+        double[] scratch = new double[paths];
+        Bands out = new Bands(new double[years], new double[years], new double[years],
+                new double[years], new double[years], new double[years]);
+
+        double roiMean = roiMeanPct / 100.0, roiVol = roiVolPct / 100.0;
+        double inflMean = inflationMeanPct / 100.0, inflVol = inflationVolPct / 100.0;
+
+        for (int y = 0; y < years; y++) {
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                SplittableRandom rng = rngs[c];
+                int from = c * CHUNK_SIZE;
+                int to = Math.min(paths, from + CHUNK_SIZE);
+                for (int p = from; p < to; p++) {
+                    double rm = Math.max(MIN_RATE, roiMean + roiVol * rng.nextGaussian()) / 12.0;
+                    double growth = Math.pow(1.0 + rm, 12);
+                    double annuity = rm == 0.0 ? 12.0 : (growth - 1.0) / rm;
+                    balance[p] = balance[p] * growth + monthly * annuity;
+                    priceLevel[p] *= 1.0 + Math.max(MIN_RATE, inflMean + inflVol * rng.nextGaussian());
+                }
+            });
+
+            System.arraycopy(balance, 0, scratch, 0, paths);
+            percentiles(scratch, y, out.nominalP10(), out.nominalP50(), out.nominalP90());
+
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int from = c * CHUNK_SIZE;
+                int to = Math.min(paths, from + CHUNK_SIZE);
+                for (int p = from; p < to; p++) scratch[p] = balance[p] / priceLevel[p];
+            });
+            percentiles(scratch, y, out.realP10(), out.realP50(), out.realP90());
+        }
+        return out;
+    }
+
+    // Nearest-rank P10/P50/P90; each select narrows the range for the next since k10 <= k50 <= k90
+    private static void percentiles(double[] a, int y, double[] p10, double[] p50, double[] p90) {
+        int n = a.length;
+        int k10 = rank(n, 0.10), k50 = rank(n, 0.50), k90 = rank(n, 0.90);
+        p10[y] = select(a, 0, n - 1, k10);
+        p50[y] = select(a, k10, n - 1, k50);
+        p90[y] = select(a, k50, n - 1, k90);
+    }
+
+    private static int rank(int n, double q) {
+        return Math.min(n - 1, Math.max(0, (int) Math.ceil(q * n) - 1));
+    }
+
+    // Hoare-style quickselect: after return a[k] holds the k-th smallest of a[lo..hi], smaller values sit left of it
+    private static double select(double[] a, int lo, int hi, int k) {
+        while (lo < hi) {
+            double pivot = a[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    double t = a[i];
+                    a[i] = a[j];
+                    a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return a[k];
+        }
+        return a[k];
+    }
+}
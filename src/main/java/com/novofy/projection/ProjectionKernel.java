@@ -0,0 +1,49 @@
+package com.novofy.projection;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Primitive-double compounding kernel shared by goal and simulation projections.
+// One Math.pow per call: the yearly growth factor is computed once and the balance is carried forward
+// year by year, instead of recomputing (1 + r/12)^(12k) in BigDecimal for every year k.
+// Callers convert to BigDecimal (2 decimals) only at the output boundary via toMoney().
+public final class ProjectionKernel {
+
+    private ProjectionKernel() {
+    }
+
+    // out[k] = balance after k years (k = 0..years) for a lump sum plus monthly contributions,
+    // compounded monthly at roiRatePercent / 12. out[0] == oneTime.
+    public static double[] yearlyBalances(double oneTime, double monthly, double roiRatePercent, int years) {
+        int n = Math.max(0, years);
+        double[] out = new double[n + 1];
+        double rm = roiRatePercent / 100.0 / 12.0;
+        double yearGrowth = Math.pow(1.0 + rm, 12);
+        double yearAnnuity = rm == 0.0 ? 12.0 : (yearGrowth - 1.0) / rm; // FV of 1 per month over one year
+
+        double balance = oneTime;
+        out[0] = balance;
+        for (int k = 1; k <= n; k++) {
+            balance = balance * yearGrowth + monthly * yearAnnuity;
+            out[k] = balance;
+        }
+        return out;
+    }
+
+    // (1 + r/12)^(12 * years)
+    public static double growth(double roiRatePercent, int years) {
+        return Math.pow(1.0 + roiRatePercent / 100.0 / 12.0, 12.0 * years);
+    }
+
+    // FV of 1 per month over `years`; equals the month count when the rate is zero
+    public static double annuityFactor(double roiRatePercent, int years) {
+        double rm = roiRatePercent / 100.0 / 12.0;
+        if (rm == 0.0) return 12.0 * years;
+        return (growth(roiRatePercent, years) - 1.0) / rm;
+    }
+
+    public static BigDecimal toMoney(double v) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) return BigDecimal.ZERO;
+        return BigDecimal.valueOf(v).setScale(2, RoundingMode.HALF_UP);
+    }
+}
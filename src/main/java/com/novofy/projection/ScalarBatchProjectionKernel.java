@@ -0,0 +1,20 @@
+package com.novofy.projection;
+
+// Plain loop; used when jdk.incubator.vector is not in the boot layer
+public final class ScalarBatchProjectionKernel implements BatchProjectionKernel {
+
+    @Override
+    public void project(double[] monthly, double[] roiRatePercent, int[] years, double[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            double rm = roiRatePercent[i] / 1200.0;
+            double months = 12.0 * years[i];
+            double annuity = rm == 0.0 ? months : Math.expm1(months * Math.log1p(rm)) / rm;
+            out[i] = monthly[i] * annuity;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
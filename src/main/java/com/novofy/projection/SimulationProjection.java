@@ -0,0 +1,41 @@
+package com.novofy.projection;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+// Deterministic lump-sum + monthly-annuity projection with monthly compounding.
+// Year index k (1..years) holds the balance after k full years:
+//   oneTime * (1 + r/12)^(12k) + monthly * ((1 + r/12)^(12k) - 1) / (r/12)
+// The math runs in ProjectionKernel; this class only converts at the BigDecimal boundary.
+public final class SimulationProjection {
+
+    private SimulationProjection() {
+    }
+
+    // Balance at the end of every year 1..years, rounded to 2 decimals
+    public static List<BigDecimal> yearlyBalances(BigDecimal oneTime, BigDecimal monthly, int roiRatePercent, int years) {
+        double[] balances = ProjectionKernel.yearlyBalances(oneTime.doubleValue(), monthly.doubleValue(), roiRatePercent, years);
+        List<BigDecimal> out = new ArrayList<>(Math.max(0, years));
+        for (int k = 1; k < balances.length; k++) {
+            out.add(ProjectionKernel.toMoney(balances[k]));
+        }
+        return out;
+    }
+
+    // Monthly contribution that reaches targetAmount after `years`, given the one-time investment; never negative
+    public static BigDecimal solveMonthly(BigDecimal targetAmount, BigDecimal oneTime, int roiRatePercent, int years) {
+        if (targetAmount == null || years <= 0) return BigDecimal.ZERO;
+        double remaining = targetAmount.doubleValue() - oneTime.doubleValue() * ProjectionKernel.growth(roiRatePercent, years);
+        if (remaining <= 0.0) return BigDecimal.ZERO;
+        double factor = ProjectionKernel.annuityFactor(roiRatePercent, years);
+        if (factor == 0.0) return BigDecimal.ZERO;
+        return ProjectionKernel.toMoney(remaining / factor);
+    }
+
+    public static BigDecimal totalInvestment(BigDecimal oneTime, BigDecimal monthly, int years) {
+        return oneTime.add(monthly.multiply(BigDecimal.valueOf(12L * years)))
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,42 @@
+package com.novofy.ratelimit;
+
+import com.novofy.config.securityConfig;
+import com.novofy.exception.RetryLaterException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Charges one token from `budget` for the authenticated subject (JWT "sub", i.e. the email) per request.
+// Runs after the security filter chain, so anonymous requests never reach here on protected paths.
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimiter.Budget budget;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, RateLimiter.Budget budget) {
+        this.rateLimiter = rateLimiter;
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // SSE endpoints are re-dispatched (ASYNC/ERROR) when they complete; only the original request pays
+        if (request.getDispatcherType() != DispatcherType.REQUEST) return true;
+
+        String subject = securityConfig.getCurrentUserEmail();
+        if (subject == null) return true;
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(subject, budget);
+        response.setHeader("X-RateLimit-Limit", String.valueOf(budget.capacity()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+        if (!decision.allowed()) {
+            // rendered by RestExceptionHandler as 429 with Retry-After
+            throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many requests. Please retry in " + decision.retryAfterSeconds() + "s.",
+                    decision.retryAfterSeconds());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+package com.novofy.ratelimit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-memory token buckets keyed by (subject, budget). Lock-free: each bucket is an AtomicReference to an immutable
+// State updated with compareAndSet, and refill is computed lazily from elapsed time, so there is no timer per bucket.
+// Buckets live in a fixed set of striped maps to spread contention; full buckets that have been idle long enough
+// are dropped by cleanup(), since a missing bucket and a full one behave the same.
+@Component
+public class RateLimiter implements MeterBinder {
+
+    // A named budget: burst size plus steady refill rate
+    public record Budget(String name, int capacity, double refillPerSecond) {
+    }
+
+    public record Decision(boolean allowed, int remaining, long retryAfterSeconds) {
+    }
+
+    private record State(double tokens, long updatedNanos) {
+    }
+
+    private final ConcurrentMap<String, AtomicReference<State>>[] stripes;
+    private final Map<String, LongAdder> allowed = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejected = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    // Must be at least the longest capacity / refill time of any budget
+    @Value("${app.rate-limit.idle-ms:3600000}")
+    private long idleMs;
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(@Value("${app.rate-limit.stripes:16}") int stripeCount) {
+        int n = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1); // round up to a power of two
+        this.stripes = new ConcurrentMap[n];
+        for (int i = 0; i < n; i++) stripes[i] = new ConcurrentHashMap<>();
+    }
+
+    public Decision tryAcquire(String subject, Budget budget) {
+        String key = budget.name() + "|" + subject;
+        AtomicReference<State> ref = stripe(key).computeIfAbsent(key,
+                k -> new AtomicReference<>(new State(budget.capacity(), System.nanoTime())));
+
+        while (true) {
+            State current = ref.get();
+            long now = System.nanoTime();
+            double tokens = refilled(current, budget, now);
+
+            if (tokens < 1.0) {
+                counter(rejected, budget).increment();
+                long retryAfter = (long) Math.ceil((1.0 - tokens) / budget.refillPerSecond());
+                return new Decision(false, 0, Math.max(1, retryAfter));
+            }
+            if (ref.compareAndSet(current, new State(tokens - 1.0, now))) {
+                counter(allowed, budget).increment();
+                return new Decision(true, (int) (tokens - 1.0), 0);
+            }
+            // lost the race to another request of the same subject; re-read and retry
+        }
+    }
+
+    public long allowedCount(String budgetName) {
+        LongAdder a = allowed.get(budgetName);
+        return a == null ? 0 : a.sum();
+    }
+
+    public long rejectedCount(String budgetName) {
+        LongAdder r = rejected.get(budgetName);
+        return r == null ? 0 : r.sum();
+    }
+
+    public int trackedBuckets() {
+        int total = 0;
+        for (ConcurrentMap<String, AtomicReference<State>> m : stripes) total += m.size();
+        return total;
+    }
+
+    // A bucket untouched for longer than idle-ms would be full again; forgetting it changes nothing
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-ms:60000}")
+    public void cleanup() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleMs);
+        for (ConcurrentMap<String, AtomicReference<State>> m : stripes) {
+            m.values().removeIf(ref -> ref.get().updatedNanos() - cutoff < 0);
+        }
+    }
+
+    private ConcurrentMap<String, AtomicReference<State>> stripe(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    private static double refilled(State s, Budget budget, long now) {
+        double elapsedSeconds = (now - s.updatedNanos()) / 1_000_000_000.0;
+        return Math.min(budget.capacity(), s.tokens() + elapsedSeconds * budget.refillPerSecond());
+    }
+
+    private LongAdder counter(Map<String, LongAdder> counters, Budget budget) {
+        LongAdder c = counters.get(budget.name());
+        if (c != null) return c;
+        return counters.computeIfAbsent(budget.name(), name -> {
+            LongAdder adder = new LongAdder();
+            MeterRegistry r = registry;
+            if (r != null) {
+                FunctionCounter.builder("ratelimit.requests", adder, LongAdder::sum)
+                        .tag("budget", name)
+                        .tag("outcome", counters == allowed ? "allowed" : "rejected")
+                        .register(r);
+            }
+            return adder;
+        });
+    }
+
+    // Budgets are only known on first use, so their counters are registered from counter()
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("ratelimit.buckets", this, RateLimiter::trackedBuckets).register(registry);
+    }
+}
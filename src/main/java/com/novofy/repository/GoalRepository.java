@@ -5,9 +5,7 @@ import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-
 @Repository
-public interface GoalRepository extends MongoRepository<Goal, ObjectId> {
+public interface GoalRepository extends MongoRepository<Goal, ObjectId>, GoalRepositoryCustom {
     
-}
\ No newline at end of file
+}
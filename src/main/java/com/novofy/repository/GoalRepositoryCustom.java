@@ -0,0 +1,21 @@
+package com.novofy.repository;
+
+import com.novofy.dto.PageCursor;
+import com.novofy.model.Goal;
+import org.bson.types.ObjectId;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface GoalRepositoryCustom {
+
+    // Goals of one user, newest first, strictly after `after` (null = first page).
+    // originalPrompt is never loaded; graphData only when includeGraph is set.
+    List<Goal> findPageByUserId(ObjectId userId, PageCursor after, int limit, boolean includeGraph);
+
+    // Single goal scoped to its owner, without originalPrompt
+    Optional<Goal> findOwned(ObjectId goalId, ObjectId userId);
+
+    // Deletes only when the goal belongs to userId
+    boolean deleteOwned(ObjectId goalId, ObjectId userId);
+}
@@ -0,0 +1,86 @@
+package com.novofy.repository;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.novofy.config.GoalOwnerBackfill;
+import com.novofy.dto.PageCursor;
+import com.novofy.exception.RetryLaterException;
+import com.novofy.model.Goal;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Keyset pages over the (userId, createdAt desc, _id desc) index declared on Goal: each page is an index
+// range scan from the cursor, so page N costs the same as page 1 (no skip).
+// Until GoalOwnerBackfill has run, ownership also matches goals listed in the user's DBRef array, since goals
+// created before userId existed don't carry it.
+@RequiredArgsConstructor
+public class GoalRepositoryImpl implements GoalRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final GoalOwnerBackfill goalOwnerBackfill;
+
+    @Value("${app.mongo.goal-owner-lookup-timeout-ms:500}")
+    private long ownerLookupTimeoutMs;
+
+    @Override
+    public List<Goal> findPageByUserId(ObjectId userId, PageCursor after, int limit, boolean includeGraph) {
+        Criteria criteria = owned(userId);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(after.createdAt()),
+                    Criteria.where("createdAt").is(after.createdAt()).and("_id").lt(after.id())));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")))
+                .limit(limit);
+        query.fields().exclude("originalPrompt");
+        if (!includeGraph) query.fields().exclude("graphData");
+
+        return mongoTemplate.find(query, Goal.class);
+    }
+
+    @Override
+    public Optional<Goal> findOwned(ObjectId goalId, ObjectId userId) {
+        Query query = Query.query(new Criteria().andOperator(Criteria.where("_id").is(goalId), owned(userId)));
+        query.fields().exclude("originalPrompt");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Goal.class));
+    }
+
+    @Override
+    public boolean deleteOwned(ObjectId goalId, ObjectId userId) {
+        Query query = Query.query(new Criteria().andOperator(Criteria.where("_id").is(goalId), owned(userId)));
+        return mongoTemplate.remove(query, Goal.class).getDeletedCount() > 0;
+    }
+
+    private Criteria owned(ObjectId userId) {
+        Criteria byOwner = Criteria.where("userId").is(userId);
+        if (goalOwnerBackfill.isComplete()) return byOwner;
+
+        Document user;
+        try {
+            user = mongoTemplate.getCollection("users")
+                    .find(Filters.eq("_id", userId))
+                    .projection(Projections.include("goals"))
+                    .maxTime(ownerLookupTimeoutMs, TimeUnit.MILLISECONDS)
+                    .first();
+        } catch (MongoExecutionTimeoutException e) {
+            // without the DBRef list legacy goals would silently disappear (or survive a delete); ask for a retry
+            throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Goals are temporarily unavailable. Please retry shortly.", 1);
+        }
+        List<ObjectId> legacy = GoalOwnerBackfill.goalIds(user);
+        return legacy.isEmpty() ? byOwner : new Criteria().orOperator(byOwner, Criteria.where("_id").in(legacy));
+    }
+}
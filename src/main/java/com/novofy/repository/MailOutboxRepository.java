@@ -0,0 +1,8 @@
+package com.novofy.repository;
+
+import com.novofy.model.MailOutbox;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface MailOutboxRepository extends MongoRepository<MailOutbox, ObjectId> {
+}
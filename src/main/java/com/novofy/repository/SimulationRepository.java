@@ -4,5 +4,5 @@ import com.novofy.model.Simulation;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface SimulationRepository extends MongoRepository<Simulation, ObjectId> {
+public interface SimulationRepository extends MongoRepository<Simulation, ObjectId>, SimulationRepositoryCustom {
 }
\ No newline at end of file
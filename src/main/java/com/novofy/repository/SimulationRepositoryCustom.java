@@ -0,0 +1,14 @@
+package com.novofy.repository;
+
+import com.novofy.dto.PageCursor;
+import com.novofy.model.Simulation;
+import org.bson.types.ObjectId;
+
+import java.util.List;
+
+public interface SimulationRepositoryCustom {
+
+    // History of one owner, newest first, strictly after `after` (null = first page).
+    // Summary fields only: prompt, series, bands and scenarios are not loaded.
+    List<Simulation> findPageByOwnerId(ObjectId ownerId, PageCursor after, int limit);
+}
@@ -0,0 +1,40 @@
+package com.novofy.repository;
+
+import com.novofy.dto.PageCursor;
+import com.novofy.model.Simulation;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+// Same keyset scheme as GoalRepositoryImpl, over the (ownerId, createdAt desc, _id desc) index on Simulation
+@RequiredArgsConstructor
+public class SimulationRepositoryImpl implements SimulationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Simulation> findPageByOwnerId(ObjectId ownerId, PageCursor after, int limit) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId);
+        if (after != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(after.createdAt()),
+                    Criteria.where("createdAt").is(after.createdAt()).and("_id").lt(after.id()));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")))
+                .limit(limit);
+        query.fields()
+                .exclude("originalPrompt")
+                .exclude("graphData")
+                .exclude("monteCarlo")
+                .exclude("scenarios");
+
+        return mongoTemplate.find(query, Simulation.class);
+    }
+}
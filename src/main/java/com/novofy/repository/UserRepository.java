@@ -3,6 +3,7 @@ package com.novofy.repository;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import com.novofy.model.User;
 
@@ -13,6 +14,10 @@ public interface UserRepository extends MongoRepository<User, ObjectId> {
 
     Optional<User> findByEmail(String email);
 
+    // Login needs only these; skips goals, profile and the rest of the document
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'email': 1, 'username': 1, 'password': 1, 'role': 1, 'tokenVersion': 1 }")
+    Optional<User> findLoginViewByEmail(String email);
+
     Optional<User> findByUsername(String username);
 
     boolean existsByEmail(String email);
@@ -0,0 +1,186 @@
+package com.novofy.service;
+
+import com.novofy.dto.CreateGoalRequest;
+import com.novofy.dto.GoalJobResponse;
+import com.novofy.model.Goal;
+import com.novofy.model.GoalJob;
+import com.novofy.repository.GoalJobRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class GoalJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(GoalJobService.class);
+
+    @Autowired
+    private GoalJobRepository goalJobRepository;
+
+    @Autowired
+    private GoalService goalService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.goal-jobs.stale-after-ms:600000}")
+    private long staleAfterMs;
+
+    @Autowired
+    @Qualifier("goalJobExecutor")
+    private ThreadPoolTaskExecutor goalJobExecutor;
+
+    // Jobs queued or running on this node; their heartbeat is refreshed by failStaleJobs
+    private final Set<ObjectId> localJobs = ConcurrentHashMap.newKeySet();
+
+    // Returns a snapshot taken before the job is handed to the worker; the worker only gets the id and works
+    // from Mongo, so nothing is shared between the request thread and the pool
+    public GoalJobResponse submit(String userEmail, CreateGoalRequest request) {
+        int currentYear = LocalDate.now().getYear();
+        if (request.getTargetYear() < currentYear) {
+            throw new IllegalArgumentException("Target year must be >= " + currentYear);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        GoalJob job = goalJobRepository.save(GoalJob.builder()
+                .ownerEmail(userEmail)
+                .status(GoalJob.PENDING)
+                .goalName(request.getGoalName())
+                .city(request.getCity())
+                .targetYear(request.getTargetYear())
+                .prompt(request.getPrompt())
+                .createdAt(now)
+                .updatedAt(now)
+                .heartbeatAt(now)
+                .build());
+        GoalJobResponse snapshot = GoalJobResponse.from(job);
+
+        ObjectId jobId = job.getId();
+        localJobs.add(jobId);
+        try {
+            goalJobExecutor.execute(() -> run(jobId));
+        } catch (TaskRejectedException e) {
+            localJobs.remove(jobId);
+            finish(jobId, GoalJob.PENDING, GoalJob.FAILED, null, HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many goal requests in progress");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many goal requests in progress. Please try later.");
+        }
+        return snapshot;
+    }
+
+    public GoalJob getJob(String jobId, String userEmail) {
+        if (!ObjectId.isValid(jobId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found");
+        }
+        return goalJobRepository.findById(new ObjectId(jobId))
+                .filter(j -> j.getOwnerEmail() != null && j.getOwnerEmail().equals(userEmail))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found"));
+    }
+
+    private void run(ObjectId jobId) {
+        try {
+            // PENDING -> RUNNING only if nobody failed the job meanwhile; otherwise the client was already told to retry
+            GoalJob job = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(jobId).and("status").is(GoalJob.PENDING)),
+                    new Update().set("status", GoalJob.RUNNING).set("updatedAt", LocalDateTime.now())
+                            .set("heartbeatAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true),
+                    GoalJob.class);
+            if (job == null) {
+                log.warn("Goal job {} is no longer PENDING, not running it", jobId);
+                return;
+            }
+            execute(job);
+        } catch (Exception ex) {
+            log.warn("Goal job {} could not be started", jobId, ex);
+            finish(jobId, GoalJob.PENDING, GoalJob.FAILED, null, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Server error: " + ex.getMessage());
+        } finally {
+            localJobs.remove(jobId);
+        }
+    }
+
+    private void execute(GoalJob job) {
+        ObjectId id = job.getId();
+        try {
+            Goal goal = goalService.createGoalForUser(
+                    job.getOwnerEmail(), job.getGoalName(), job.getCity(), job.getTargetYear(), job.getPrompt());
+            finish(id, GoalJob.RUNNING, GoalJob.SUCCEEDED, goal.getGoalId(), null, null);
+        } catch (ResponseStatusException ex) {
+            finish(id, GoalJob.RUNNING, GoalJob.FAILED, null, ex.getStatusCode().value(), ex.getReason());
+        } catch (IllegalArgumentException ex) {
+            finish(id, GoalJob.RUNNING, GoalJob.FAILED, null, HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+        } catch (Exception ex) {
+            log.warn("Goal job {} failed", id, ex);
+            finish(id, GoalJob.RUNNING, GoalJob.FAILED, null, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Server error: " + ex.getMessage());
+        }
+    }
+
+    // Jobs whose node died (restart, OOM) never reach a final state on their own. Every node first refreshes
+    // heartbeatAt on the jobs it still holds (queued or running), then fails PENDING/RUNNING jobs whose heartbeat is
+    // older than stale-after-ms, i.e. jobs no live node holds. A long queue therefore never gets swept, and the
+    // conditional PENDING -> RUNNING claim keeps a swept job from running afterwards. Runs at startup, then periodically.
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.goal-jobs.stale-check-ms:60000}")
+    public void failStaleJobs() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<ObjectId> held = List.copyOf(localJobs);
+            if (!held.isEmpty()) {
+                mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("_id").in(held).and("status").in(GoalJob.PENDING, GoalJob.RUNNING)),
+                        new Update().set("heartbeatAt", now),
+                        GoalJob.class);
+            }
+
+            LocalDateTime cutoff = now.minus(Duration.ofMillis(staleAfterMs));
+            Query q = Query.query(new Criteria().andOperator(
+                    Criteria.where("status").in(GoalJob.PENDING, GoalJob.RUNNING),
+                    new Criteria().orOperator(
+                            Criteria.where("heartbeatAt").lt(cutoff),
+                            // jobs written before heartbeats existed
+                            Criteria.where("heartbeatAt").is(null).and("updatedAt").lt(cutoff))));
+            Update u = new Update()
+                    .set("status", GoalJob.FAILED)
+                    .set("errorStatus", HttpStatus.SERVICE_UNAVAILABLE.value())
+                    .set("error", "Goal job was interrupted. Please try again.")
+                    .set("updatedAt", now);
+            long n = mongoTemplate.updateMulti(q, u, GoalJob.class).getModifiedCount();
+            if (n > 0) log.warn("Marked {} stale goal job(s) as FAILED", n);
+        } catch (Exception e) {
+            log.warn("Stale goal job check failed: {}", e.getMessage());
+        }
+    }
+
+    // Only moves the job out of `expected`; a job already failed by the sweep keeps that state
+    private void finish(ObjectId jobId, String expected, String status, ObjectId goalId, Integer errorStatus, String error) {
+        Update update = new Update()
+                .set("status", status)
+                .set("goalId", goalId)
+                .set("errorStatus", errorStatus)
+                .set("error", error)
+                .set("updatedAt", LocalDateTime.now());
+        long n = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(jobId).and("status").is(expected)), update, GoalJob.class)
+                .getModifiedCount();
+        if (n == 0) log.warn("Goal job {} was no longer {}; {} result dropped", jobId, expected, status);
+    }
+}
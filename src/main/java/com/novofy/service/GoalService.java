@@ -1,15 +1,25 @@
 package com.novofy.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novofy.ai.AiCallMetrics;
+import com.novofy.ai.AiRequestCoalescer;
+import com.novofy.ai.AiResponseCache;
+import com.novofy.ai.AiStreamListener;
+import com.novofy.ai.AiStreamer;
 import com.novofy.config.securityConfig;
+import com.novofy.dto.CursorPage;
 import com.novofy.dto.GoalAiResponse;
+import com.novofy.dto.PageCursor;
 import com.novofy.model.Goal;
 import com.novofy.model.User;
+import com.novofy.projection.ProjectionKernel;
 import com.novofy.repository.GoalRepository;
 import com.novofy.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.converter.BeanOutputConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.ai.retry.NonTransientAiException;
 import org.springframework.http.HttpStatus;
@@ -18,7 +28,6 @@ import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
@@ -40,13 +49,29 @@ public class GoalService {
     private final GoalRepository goalRepository;
     private final ObjectMapper objectMapper;
     private final UserService userService;
+    private final AiResponseCache aiResponseCache;
+    private final AiRequestCoalescer aiRequestCoalescer;
+    private final AiStreamer aiStreamer;
+    private final AiCallMetrics aiCallMetrics;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     private static String escapeBraces(String s) {
         return s == null ? null : s.replace("{", "\\{").replace("}", "\\}");
     }
 
+    // The base prompt depends only on these inputs (and the current year), so they identify the AI answer
+    private static String aiCacheKey(String goalName, String city, int targetYear, int currentYear) {
+        return "goal|" + AiResponseCache.normalize(goalName)
+                + "|" + AiResponseCache.normalize(city)
+                + "|" + targetYear
+                + "|" + currentYear;
+    }
+
+    // Projection helpers below are package-private so the JMH benchmarks (src/jmh) can call them directly
+
     // Ensure data covers every year [startYear, endYear], filling gaps with last known value (or 0)
-    private static List<GoalAiResponse.GraphPoint> normalizeGraph(List<GoalAiResponse.GraphPoint> input, int startYear, int endYear) {
+    static List<GoalAiResponse.GraphPoint> normalizeGraph(List<GoalAiResponse.GraphPoint> input, int startYear, int endYear) {
         Map<Integer, BigDecimal> byYear = new HashMap<>();
         if (input != null) {
             for (GoalAiResponse.GraphPoint p : input) {
@@ -69,9 +94,8 @@ public class GoalService {
     }
 
     // Deterministic projection from monthlySaving and ROI (monthly compounding), first year = 0
-    private static List<GoalAiResponse.GraphPoint> computeGraphFromMonthly(BigDecimal monthlySaving, int startYear, int endYear, int roiRatePercent) {
+    static List<GoalAiResponse.GraphPoint> computeGraphFromMonthly(BigDecimal monthlySaving, int startYear, int endYear, int roiRatePercent) {
         ArrayList<GoalAiResponse.GraphPoint> out = new ArrayList<>();
-        MathContext mc = MathContext.DECIMAL64;
         BigDecimal zero = BigDecimal.ZERO;
         if (monthlySaving == null || monthlySaving.signum() <= 0) {
             // produce all zeros
@@ -83,9 +107,8 @@ public class GoalService {
             }
             return out;
         }
-        BigDecimal rAnnual = BigDecimal.valueOf(roiRatePercent).divide(BigDecimal.valueOf(100), mc);
-        BigDecimal rMonthly = rAnnual.divide(BigDecimal.valueOf(12), mc);
-        BigDecimal onePlusRm = BigDecimal.ONE.add(rMonthly, mc);
+        // FV of monthly contributions (ordinary annuity), carried forward year by year in doubles
+        double[] balances = ProjectionKernel.yearlyBalances(0.0, monthlySaving.doubleValue(), roiRatePercent, endYear - startYear);
 
         for (int y = startYear; y <= endYear; y++) {
             GoalAiResponse.GraphPoint gp = new GoalAiResponse.GraphPoint();
@@ -93,12 +116,7 @@ public class GoalService {
             if (y == startYear) {
                 gp.setProjectedValue(zero); // first year = 0
             } else {
-                int months = (y - startYear) * 12;
-                BigDecimal pow = onePlusRm.pow(months, mc);
-                // FV of monthly contributions (ordinary annuity): m * ((pow - 1) / rMonthly)
-                BigDecimal fv = monthlySaving.multiply(pow.subtract(BigDecimal.ONE, mc)
-                        .divide(rMonthly, mc), mc);
-                gp.setProjectedValue(fv);
+                gp.setProjectedValue(ProjectionKernel.toMoney(balances[y - startYear]));
             }
             out.add(gp);
         }
@@ -106,17 +124,11 @@ public class GoalService {
     }
 
     // If monthly is missing but final is known, invert the annuity formula to estimate monthly
-    private static BigDecimal solveMonthlyFromFinal(BigDecimal targetFinal, int years, int roiRatePercent) {
+    static BigDecimal solveMonthlyFromFinal(BigDecimal targetFinal, int years, int roiRatePercent) {
         if (targetFinal == null || targetFinal.signum() <= 0 || years <= 0 || roiRatePercent <= 0) return BigDecimal.ZERO;
-        MathContext mc = MathContext.DECIMAL64;
-        BigDecimal rAnnual = BigDecimal.valueOf(roiRatePercent).divide(BigDecimal.valueOf(100), mc);
-        BigDecimal rMonthly = rAnnual.divide(BigDecimal.valueOf(12), mc);
-        BigDecimal onePlusRm = BigDecimal.ONE.add(rMonthly, mc);
-        int months = years * 12;
-        BigDecimal pow = onePlusRm.pow(months, mc);
-        BigDecimal denom = pow.subtract(BigDecimal.ONE, mc).divide(rMonthly, mc);
-        if (denom.signum() == 0) return BigDecimal.ZERO;
-        return targetFinal.divide(denom, mc).setScale(2, RoundingMode.HALF_UP);
+        double denom = ProjectionKernel.annuityFactor(roiRatePercent, years);
+        if (denom == 0.0) return BigDecimal.ZERO;
+        return ProjectionKernel.toMoney(targetFinal.doubleValue() / denom);
     }
 
     public Goal createGoal(String goalName, String city, int targetYear, String userPrompt) throws Exception {
@@ -126,16 +138,130 @@ public class GoalService {
             throw new RuntimeException("Unauthorized: No user found in JWT");
         }
 
+        return createGoalForUser(userEmail, goalName, city, targetYear, userPrompt);
+    }
+
+    // Same as createGoal but for an explicit user, so it can run off the request thread (see GoalJobService)
+    public Goal createGoalForUser(String userEmail, String goalName, String city, int targetYear, String userPrompt) throws Exception {
+
+        User user = requireUser(userEmail);
+        int currentYear = requireTargetYear(targetYear);
+
+        String finalPrompt = buildPrompt(goalName, city, targetYear, userPrompt, currentYear);
+        String escapedPrompt = escapeBraces(finalPrompt);
+
+        // Custom prompts can change the answer arbitrarily, so only the plain (goal, city, year) request is cached
+        String cacheKey = (userPrompt == null || userPrompt.isBlank())
+                ? aiCacheKey(goalName, city, targetYear, currentYear)
+                : null;
+
+        GoalAiResponse aiResponse = cacheKey != null ? aiResponseCache.get(cacheKey, GoalAiResponse.class) : null;
+        if (aiResponse == null) {
+            // identical prompts in flight at the same time share one upstream call
+            String flightKey = cacheKey != null ? cacheKey : "goal-prompt|" + AiResponseCache.normalize(finalPrompt);
+            try {
+                aiResponse = aiRequestCoalescer.execute(flightKey, () -> aiCallMetrics.record("goal", () -> chatClient
+                    .prompt()
+                    .user(escapedPrompt)
+                    .call()
+                    .entity(GoalAiResponse.class)));
+            } catch (Exception e) {
+                throw aiFailure(e);
+            }
+            if (cacheKey != null) aiResponseCache.put(cacheKey, aiResponse);
+        }
+
+        Goal goal = buildGoal(aiResponse, goalName, city, targetYear, finalPrompt, currentYear);
+        return saveGoal(user, goal);
+    }
+
+    // Streaming variant: pushes raw AI chunks to the listener as they arrive, then runs the same
+    // server-side corrections on the assembled response before anything is persisted.
+    public Goal createGoalStreaming(String userEmail, String goalName, String city, int targetYear, String userPrompt,
+                                    AiStreamListener listener) throws Exception {
+
+        User user = requireUser(userEmail);
+        int currentYear = requireTargetYear(targetYear);
+
+        String finalPrompt = buildPrompt(goalName, city, targetYear, userPrompt, currentYear);
+        String cacheKey = (userPrompt == null || userPrompt.isBlank())
+                ? aiCacheKey(goalName, city, targetYear, currentYear)
+                : null;
+
+        GoalAiResponse aiResponse = cacheKey != null ? aiResponseCache.get(cacheKey, GoalAiResponse.class) : null;
+        if (aiResponse == null) {
+            BeanOutputConverter<GoalAiResponse> converter = new BeanOutputConverter<>(GoalAiResponse.class);
+            try {
+                aiResponse = aiCallMetrics.record("goal_stream", () -> converter.convert(
+                        aiStreamer.stream(escapeBraces(finalPrompt), converter.getFormat(), listener)));
+            } catch (Exception e) {
+                throw aiFailure(e);
+            }
+            if (cacheKey != null) aiResponseCache.put(cacheKey, aiResponse);
+        }
+
+        Goal goal = buildGoal(aiResponse, goalName, city, targetYear, finalPrompt, currentYear);
+        listener.onStage("graph", goal.getGraphData());
+        return saveGoal(user, goal);
+    }
+
+    // Newest first; served from the (userId, createdAt, _id) index rather than the DBRef list on User
+    public CursorPage<Goal> getUserGoals(String cursor, int limit, boolean includeGraph) {
+        User user = requireUser(requireEmail());
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // fetch one extra to know whether another page exists
+        List<Goal> rows = goalRepository.findPageByUserId(user.getId(), PageCursor.decode(cursor), pageSize + 1, includeGraph);
+        if (rows.size() <= pageSize) return new CursorPage<>(rows, null);
+
+        List<Goal> page = rows.subList(0, pageSize);
+        Goal last = page.get(pageSize - 1);
+        return new CursorPage<>(new ArrayList<>(page), PageCursor.after(last.getCreatedAt(), last.getGoalId()).encode());
+    }
+
+    public Goal getGoalById(String goalId) {
+        User user = requireUser(requireEmail());
+        return goalRepository.findOwned(parseGoalId(goalId), user.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Goal not found"));
+    }
+
+    public void deleteGoal(String goalId) {
+        User user = requireUser(requireEmail());
+        ObjectId id = parseGoalId(goalId);
+        if (!goalRepository.deleteOwned(id, user.getId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Goal not found");
+        }
+        userService.removeGoalFromUser(user.getId(), id);
+    }
+
+    private static String requireEmail() {
+        String userEmail = securityConfig.getCurrentUserEmail();
+        if (userEmail == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        return userEmail;
+    }
+
+    private static ObjectId parseGoalId(String goalId) {
+        if (goalId == null || !ObjectId.isValid(goalId)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Goal not found");
+        return new ObjectId(goalId);
+    }
+
+    private User requireUser(String userEmail) {
         Optional<User> userOpt = userRepository.findByEmail(userEmail);
         if (userOpt.isEmpty()) {
             throw new RuntimeException("User not found: " + userEmail);
         }
+        return userOpt.get();
+    }
 
+    private static int requireTargetYear(int targetYear) {
         int currentYear = LocalDate.now().getYear();
         if (targetYear < currentYear) {
             throw new IllegalArgumentException("Target year must be >= " + currentYear);
         }
+        return currentYear;
+    }
 
+    private static String buildPrompt(String goalName, String city, int targetYear, String userPrompt, int currentYear) {
         String basePrompt = """
             You are a financial planner AI.
             Always respond in strictly valid JSON ONLY.
@@ -193,31 +319,31 @@ public class GoalService {
             targetYear
             );
 
-        String finalPrompt = (userPrompt != null && !userPrompt.isBlank())
+        return (userPrompt != null && !userPrompt.isBlank())
                 ? basePrompt + "\n\nAdditional user instructions (take precedence; keep JSON-only):\n<<<\n"
                   + userPrompt.trim() + "\n>>>"
                 : basePrompt;
+    }
 
-        String escapedPrompt = escapeBraces(finalPrompt);
-
-        GoalAiResponse aiResponse;
-        try {
-            aiResponse = chatClient
-                .prompt()
-                .user(escapedPrompt)
-                .call()
-                .entity(GoalAiResponse.class);
-        } catch (NonTransientAiException e) {
+    private static ResponseStatusException aiFailure(Exception e) {
+        if (e instanceof ResponseStatusException rse) {
+            return rse;
+        }
+        if (e instanceof NonTransientAiException) {
             // OpenAI quota or similar non-retryable error
-            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "AI quota exceeded. Please try later.");
-        } catch (RestClientResponseException e) {
-            HttpStatus status = HttpStatus.resolve(e.getRawStatusCode());
-            throw new ResponseStatusException(status != null ? status : HttpStatus.BAD_GATEWAY,
-                    "AI call failed: " + e.getResponseBodyAsString());
-        } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "AI call failed: " + e.getMessage());
+            return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "AI quota exceeded. Please try later.");
+        }
+        if (e instanceof RestClientResponseException rce) {
+            HttpStatus status = HttpStatus.resolve(rce.getRawStatusCode());
+            return new ResponseStatusException(status != null ? status : HttpStatus.BAD_GATEWAY,
+                    "AI call failed: " + rce.getResponseBodyAsString());
         }
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "AI call failed: " + e.getMessage());
+    }
 
+    // Server-side invariants: the AI only supplies rates and the monthly figure, the graph is always recomputed
+    private static Goal buildGoal(GoalAiResponse aiResponse, String goalName, String city, int targetYear,
+                                  String finalPrompt, int currentYear) {
         // Server-side correction for "correct data"
         int roiRate = aiResponse.getRoiRate() > 0 ? aiResponse.getRoiRate() : 12; // default 12%
         int periodsYears = targetYear - currentYear;
@@ -268,8 +394,13 @@ public class GoalService {
         goal.setGraphData(graphData);
         goal.setFinalAmount(finalAmount);
 
+        return goal;
+    }
+
+    private Goal saveGoal(User user, Goal goal) {
+        goal.setUserId(user.getId());
         Goal savedGoal = goalRepository.save(goal);
-        userService.addGoalToUser(userOpt.get().getId(), savedGoal);
+        userService.addGoalToUser(user.getId(), savedGoal);
         return savedGoal;
     }
 }
@@ -0,0 +1,207 @@
+package com.novofy.service;
+
+import com.novofy.model.MailOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Drains mail_outbox in the background so no HTTP request waits on SMTP.
+// Each run claims up to batch-size due rows with findAndModify (safe with several nodes), sends them in one
+// JavaMailSender.send(SimpleMailMessage...) call, which reuses a single SMTP connection for the whole batch,
+// then records per-message results. Failures retry with exponential backoff until max-attempts, then FAILED.
+// The lease is extended to cover the whole claimed batch before sending, so a slow SMTP server can't let it lapse
+// and another node re-send the same rows. Final rows drop their body (it holds a live reset link) and are removed
+// by the expireAt TTL index (IndexManager) after retention-ms.
+@Service
+public class MailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final JavaMailSender mailSender;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.lease-ms:120000}")
+    private long leaseMs;
+
+    // added per claimed message; should cover mail.smtp.timeout + writetimeout
+    @Value("${app.mail.outbox.lease-per-message-ms:30000}")
+    private long leasePerMessageMs;
+
+    @Value("${app.mail.outbox.retention-ms:604800000}")
+    private long retentionMs;
+
+    @Value("${app.mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${app.mail.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    public MailOutboxDispatcher(MongoTemplate mongoTemplate, JavaMailSender mailSender) {
+        this.mongoTemplate = mongoTemplate;
+        this.mailSender = mailSender;
+    }
+
+    @Scheduled(initialDelay = 5000, fixedDelayString = "${app.mail.outbox.poll-ms:5000}")
+    public void dispatch() {
+        try {
+            List<MailOutbox> batch = claim();
+            if (!batch.isEmpty()) send(batch);
+        } catch (Exception e) {
+            log.warn("Mail outbox dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    // Final rows written before expireAt existed (or by an older node) would otherwise never be pruned
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.mail.outbox.sweep-ms:3600000}")
+    public void scheduleExpiry() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long n = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("status").in(MailOutbox.SENT, MailOutbox.FAILED).and("expireAt").is(null)),
+                    new Update().set("expireAt", now.plusNanos(retentionMs * 1_000_000)).unset("body"),
+                    MailOutbox.class).getModifiedCount();
+            if (n > 0) log.info("Mail outbox: scheduled expiry for {} finished row(s)", n);
+        } catch (Exception e) {
+            log.warn("Mail outbox expiry sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private List<MailOutbox> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        Query due = Query.query(new Criteria().andOperator(
+                        Criteria.where("nextAttemptAt").lte(now),
+                        new Criteria().orOperator(
+                                Criteria.where("status").is(MailOutbox.PENDING),
+                                Criteria.where("status").is(MailOutbox.SENDING).and("leaseUntil").lt(now))))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+        Update lease = new Update()
+                .set("status", MailOutbox.SENDING)
+                .set("leaseUntil", now.plusNanos(leaseMs * 1_000_000))
+                .set("updatedAt", now);
+
+        List<MailOutbox> claimed = new ArrayList<>();
+        while (claimed.size() < batchSize) {
+            MailOutbox row = mongoTemplate.findAndModify(due, lease, FindAndModifyOptions.options().returnNew(true), MailOutbox.class);
+            if (row == null) break;
+            claimed.add(row);
+        }
+        if (!claimed.isEmpty()) extendLease(claimed);
+        return claimed;
+    }
+
+    // Only rows still SENDING under this claim; one whose lease already lapsed to another node is left alone
+    private void extendLease(List<MailOutbox> claimed) {
+        LocalDateTime until = LocalDateTime.now().plusNanos((leaseMs + claimed.size() * leasePerMessageMs) * 1_000_000);
+        for (MailOutbox row : claimed) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(row.getId())
+                            .and("status").is(MailOutbox.SENDING)
+                            .and("leaseUntil").is(row.getLeaseUntil())),
+                    new Update().set("leaseUntil", until),
+                    MailOutbox.class);
+            row.setLeaseUntil(until);
+        }
+    }
+
+    private void send(List<MailOutbox> batch) {
+        // keyed by identity: JavaMailSenderImpl reports failures against the SimpleMailMessage instances we pass in
+        Map<SimpleMailMessage, MailOutbox> byMessage = new IdentityHashMap<>();
+        for (MailOutbox row : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(row.getTo());
+            message.setSubject(row.getSubject());
+            message.setText(row.getBody());
+            byMessage.put(message, row);
+        }
+
+        Map<Object, Exception> failed = Map.of();
+        try {
+            mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+            // no per-message detail (e.g. connect/auth failure): the whole batch failed
+            if (failed.isEmpty()) failed = allFailed(byMessage, e);
+        } catch (MailException e) {
+            failed = allFailed(byMessage, e);
+        }
+
+        int sent = 0;
+        for (Map.Entry<SimpleMailMessage, MailOutbox> entry : byMessage.entrySet()) {
+            Exception error = failed.get(entry.getKey());
+            if (error == null) {
+                markSent(entry.getValue());
+                sent++;
+            } else {
+                markFailed(entry.getValue(), error);
+            }
+        }
+        log.info("Mail outbox: sent {} of {}", sent, batch.size());
+    }
+
+    private static Map<Object, Exception> allFailed(Map<SimpleMailMessage, MailOutbox> byMessage, Exception e) {
+        Map<Object, Exception> all = new IdentityHashMap<>();
+        byMessage.keySet().forEach(m -> all.put(m, e));
+        return all;
+    }
+
+    private void markSent(MailOutbox row) {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(row.getId())),
+                new Update()
+                        .set("status", MailOutbox.SENT)
+                        .set("sentAt", now)
+                        .set("updatedAt", now)
+                        .set("expireAt", now.plusNanos(retentionMs * 1_000_000))
+                        .unset("body")
+                        .unset("leaseUntil")
+                        .inc("attempts", 1),
+                MailOutbox.class);
+    }
+
+    private void markFailed(MailOutbox row, Exception error) {
+        LocalDateTime now = LocalDateTime.now();
+        int attempts = row.getAttempts() + 1;
+        boolean giveUp = attempts >= maxAttempts;
+
+        Update update = new Update()
+                .set("status", giveUp ? MailOutbox.FAILED : MailOutbox.PENDING)
+                .set("attempts", attempts)
+                .set("lastError", String.valueOf(error.getMessage()))
+                .set("updatedAt", now)
+                .unset("leaseUntil");
+        if (giveUp) update.set("expireAt", now.plusNanos(retentionMs * 1_000_000)).unset("body");
+        else update.set("nextAttemptAt", now.plusNanos(backoffMs(attempts) * 1_000_000));
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(row.getId())), update, MailOutbox.class);
+        if (giveUp) log.warn("Mail to {} failed permanently after {} attempts: {}", row.getTo(), attempts, error.getMessage());
+    }
+
+    // base, 2x base, 4x base, ... capped at backoff-max-ms
+    private long backoffMs(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(backoffMaxMs, backoffBaseMs << shift);
+    }
+}
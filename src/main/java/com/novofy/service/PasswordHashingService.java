@@ -0,0 +1,142 @@
+package com.novofy.service;
+
+import com.novofy.exception.RetryLaterException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Runs bcrypt on the bounded passwordHashExecutor instead of request threads, so a login storm is capped at
+// pool-size cores and anything beyond the queue is shed with 503 + Retry-After rather than stalling other endpoints.
+// A running bcrypt can't be interrupted, so the max-wait timeout only sheds work that is still queued. Callers are
+// therefore refused up front when the backlog ahead of them, at the observed hash time, would already exceed it.
+@Service
+public class PasswordHashingService implements MeterBinder {
+
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${app.auth.hashing.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    @Value("${app.auth.hashing.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    private final LongAdder rejected = new LongAdder();
+
+    // moving average of one hash, fed by completed tasks; 0 until the first one finishes
+    private volatile long avgHashNanos;
+
+    public boolean matches(String raw, String encoded) {
+        return run(() -> passwordEncoder.matches(raw, encoded));
+    }
+
+    public String encode(String raw) {
+        return run(() -> passwordEncoder.encode(raw));
+    }
+
+    // Best effort: hash in the background and hand the result over; skipped silently when the pool is busy
+    public void encodeInBackground(String raw, Consumer<String> onEncoded) {
+        try {
+            executor.execute(() -> onEncoded.accept(passwordEncoder.encode(raw)));
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+        }
+    }
+
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    public int queueSize() {
+        return executor.getQueueSize();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    // pool size / active / queue come from Boot's executor metrics (executor.*{name=passwordHashExecutor})
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.hashing.rejected", this, PasswordHashingService::rejectedCount).register(registry);
+    }
+
+    private <T> T run(Supplier<T> task) {
+        if (projectedWaitMs() > maxWaitMs) {
+            rejected.increment();
+            throw busy();
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(task));
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            throw busy();
+        }
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // drops the task if it is still queued; one already hashing runs to completion regardless
+            future.cancel(false);
+            rejected.increment();
+            throw busy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw busy();
+        } catch (ExecutionException e) {
+            // surface the encoder's own exceptions unchanged
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Time until a task submitted now would start: every pool thread works through its share of the backlog
+    private long projectedWaitMs() {
+        long avg = avgHashNanos;
+        if (avg == 0) return 0;
+        int threads = Math.max(1, executor.getMaxPoolSize());
+        long ahead = executor.getQueueSize() + executor.getActiveCount();
+        // an idle thread is always worth a try, which also keeps the average fed when hashes get slower
+        if (ahead < threads) return 0;
+        long rounds = ahead / threads;
+        return TimeUnit.NANOSECONDS.toMillis(rounds * avg + avg);
+    }
+
+    private <T> T timed(Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            long took = System.nanoTime() - start;
+            long avg = avgHashNanos;
+            avgHashNanos = avg == 0 ? took : avg + (took - avg) / 8;
+        }
+    }
+
+    private RetryLaterException busy() {
+        return new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Too many sign-in requests in progress. Please retry shortly.", retryAfterSeconds);
+    }
+}
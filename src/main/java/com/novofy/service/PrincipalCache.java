@@ -0,0 +1,77 @@
+package com.novofy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.novofy.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// In-process cache of the fields needed to rebuild a UserDetails, keyed by email.
+// Only plain values are cached: Spring Security erases credentials on the UserDetails it hands out,
+// so a fresh instance is built on every lookup.
+@Component
+public class PrincipalCache implements MeterBinder {
+
+    private final Cache<String, CachedPrincipal> cache;
+
+    public PrincipalCache(@Value("${app.auth.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.auth.principal-cache.ttl-ms:300000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    public UserDetails get(String email, Function<String, User> loader) {
+        CachedPrincipal p = cache.get(email, e -> CachedPrincipal.of(loader.apply(e)));
+        return p.toUserDetails();
+    }
+
+    // Seed from a user document the caller already loaded (e.g. at login), saving the first JwtFilter lookup
+    public void put(User user) {
+        if (user != null && user.getEmail() != null && user.getRole() != null) {
+            cache.put(user.getEmail(), CachedPrincipal.of(user));
+        }
+    }
+
+    public void invalidate(String email) {
+        if (email != null) cache.invalidate(email);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "auth.principals");
+    }
+
+    record CachedPrincipal(String email, String password, String role) {
+        static CachedPrincipal of(User user) {
+            return new CachedPrincipal(user.getEmail(), user.getPassword(), user.getRole());
+        }
+
+        UserDetails toUserDetails() {
+            return org.springframework.security.core.userdetails.User
+                    .builder()
+                    .username(email)
+                    .password(password)
+                    .roles(role)
+                    .build();
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.novofy.service;
 
+import com.novofy.ai.AiCallMetrics;
+import com.novofy.ai.AiRequestCoalescer;
+import com.novofy.ai.AiResponseCache;
+import com.novofy.ai.AiStreamListener;
+import com.novofy.ai.AiStreamer;
 import com.novofy.config.securityConfig;
+import com.novofy.dto.CursorPage;
+import com.novofy.dto.PageCursor;
 import com.novofy.dto.SimulationAiResponse;
+import com.novofy.dto.SimulationBatchRequest;
+import com.novofy.dto.SimulationRatesAiResponse;
 import com.novofy.dto.SimulationRequest;
 import com.novofy.model.Simulation;
 import com.novofy.model.User;
+import com.novofy.projection.MonteCarloProjection;
+import com.novofy.projection.ProjectionKernel;
+import com.novofy.projection.SimulationProjection;
 import com.novofy.repository.SimulationRepository;
 import com.novofy.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -24,12 +39,42 @@ public class SimulationService {
     private final ChatClient chatClient;
     private final SimulationRepository simulationRepository;
     private final UserRepository userRepository;
+    private final AiRequestCoalescer aiRequestCoalescer;
+    private final AiStreamer aiStreamer;
+    private final AiCallMetrics aiCallMetrics;
+
+    private static final int DEFAULT_ROI_RATE = 12;
+    private static final int DEFAULT_INFLATION_RATE = 6;
+
+    private static final String MODE_MONTE_CARLO = "monte_carlo";
+    private static final int DEFAULT_PATHS = 10_000;
+    private static final int MAX_PATHS = 100_000;
+    private static final int DEFAULT_ROI_VOLATILITY = 15;
+    private static final int DEFAULT_INFLATION_VOLATILITY = 2;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Value("${app.simulation.local-engine:true}")
+    private boolean localEngine;
+
+    // Upper bound on durationYears; Monte Carlo work and series allocations grow linearly with it
+    @Value("${app.simulation.max-horizon-years:100}")
+    private int maxHorizonYears;
+
+    @Value("${app.simulation.batch.max-scenarios:200}")
+    private int maxBatchScenarios;
+
+    // Total projected years across the grid (sum of durations x ROI count x inflation count); bounds both the CPU
+    // spent and the size of the stored document
+    @Value("${app.simulation.batch.max-scenario-years:10000}")
+    private long maxBatchScenarioYears;
 
     private static String nz(String s) { return s == null ? "" : s; }
     private static BigDecimal n0(BigDecimal v) { return v == null ? BigDecimal.ZERO : v; }
     private static String esc(String s) { return s == null ? null : s.replace("{", "\\{").replace("}", "\\}"); }
 
-    private static List<Simulation.GoalGraphData> toCalendarSeries(List<SimulationAiResponse.GraphPoint> idx, int startYear) {
+    // Series helpers are package-private so the JMH benchmarks (src/jmh) can call them directly
+    static List<Simulation.GoalGraphData> toCalendarSeries(List<SimulationAiResponse.GraphPoint> idx, int startYear) {
         List<Simulation.GoalGraphData> out = new ArrayList<>();
         if (idx == null) return out;
         for (int i = 0; i < idx.size(); i++) {
@@ -40,7 +85,7 @@ public class SimulationService {
         return out;
     }
 
-    private static List<SimulationAiResponse.GraphPoint> normalizeIndexSeries(List<SimulationAiResponse.GraphPoint> input, int periods) {
+    static List<SimulationAiResponse.GraphPoint> normalizeIndexSeries(List<SimulationAiResponse.GraphPoint> input, int periods) {
         Map<Integer, SimulationAiResponse.GraphPoint> byIdx = new HashMap<>();
         if (input != null) {
             for (SimulationAiResponse.GraphPoint p : input) {
@@ -68,15 +113,232 @@ public class SimulationService {
         String email = securityConfig.getCurrentUserEmail();
         if (email == null) throw new RuntimeException("Unauthorized");
 
+        int periods = requireDuration(req);
+        User user = requireUser(email);
+
+        int currentYear = LocalDate.now().getYear();
+        String finalPrompt = prompt(req, periods, currentYear);
+
+        SimulationAiResponse ai = null;
+        if (needsAi(req)) {
+            try {
+                ai = aiRequestCoalescer.execute("simulation|" + AiResponseCache.normalize(finalPrompt),
+                        () -> aiCallMetrics.record("simulation", () -> callAi(finalPrompt)));
+            } catch (Exception e) {
+                throw aiFailure(e);
+            }
+        }
+
+        Simulation sim = buildSimulation(req, ai, periods, currentYear, finalPrompt);
+        sim.setOwnerId(user.getId());
+        Simulation saved = simulationRepository.save(sim);
+
+        return saved;
+    }
+
+    // Streaming variant: forwards AI chunks to the listener, then applies the same invariants before saving
+    public Simulation createSimulationStreaming(String email, SimulationRequest req, AiStreamListener listener) {
+        int periods = requireDuration(req);
+        User user = requireUser(email);
+
+        int currentYear = LocalDate.now().getYear();
+        String finalPrompt = prompt(req, periods, currentYear);
+
+        SimulationAiResponse ai = null;
+        if (needsAi(req)) {
+            try {
+                ai = aiCallMetrics.record("simulation_stream", () -> streamAi(finalPrompt, listener));
+            } catch (Exception e) {
+                throw aiFailure(e);
+            }
+        }
+
+        Simulation sim = buildSimulation(req, ai, periods, currentYear, finalPrompt);
+        sim.setOwnerId(user.getId());
+        listener.onStage("graph", sim.getGraphData());
+        if (sim.getMonteCarlo() != null) listener.onStage("bands", sim.getMonteCarlo());
+        return simulationRepository.save(sim);
+    }
+
+    // Projects every durations x roiRates x inflationRates combination with the local engine and stores
+    // them as one Simulation. Scenarios are independent, so they run on a parallel stream; toList() keeps grid order.
+    public Simulation createBatchSimulation(String email, SimulationBatchRequest req) {
+        List<Integer> durations = req.getDurations() == null ? List.of() : req.getDurations().stream().distinct().toList();
+        List<Integer> roiRates = req.getRoiRates() == null || req.getRoiRates().isEmpty()
+                ? List.of(DEFAULT_ROI_RATE) : req.getRoiRates().stream().distinct().toList();
+        List<Integer> inflationRates = req.getInflationRates() == null || req.getInflationRates().isEmpty()
+                ? List.of(DEFAULT_INFLATION_RATE) : req.getInflationRates().stream().distinct().toList();
+
+        if (durations.isEmpty() || durations.stream().anyMatch(d -> d == null || d <= 0 || d > maxHorizonYears))
+            throw new IllegalArgumentException("durations must be a non-empty list of years between 1 and " + maxHorizonYears);
+        if (roiRates.contains(null) || inflationRates.contains(null))
+            throw new IllegalArgumentException("roiRates and inflationRates must not contain null");
+        if (req.getMonthlyInvestment() == null && req.getTargetAmount() == null)
+            throw new IllegalArgumentException("Provide monthlyInvestment or targetAmount");
+        long gridSize = (long) durations.size() * roiRates.size() * inflationRates.size();
+        if (gridSize > maxBatchScenarios)
+            throw new IllegalArgumentException("Too many scenarios: " + gridSize + " (max " + maxBatchScenarios + ")");
+        long scenarioYears = durations.stream().mapToLong(Integer::longValue).sum() * roiRates.size() * inflationRates.size();
+        if (scenarioYears > maxBatchScenarioYears)
+            throw new IllegalArgumentException("Batch too large: " + scenarioYears + " projected years (max " + maxBatchScenarioYears + ")");
+
+        User user = requireUser(email);
+
+        List<int[]> grid = new ArrayList<>((int) gridSize);
+        for (int d : durations)
+            for (int roi : roiRates)
+                for (int infl : inflationRates)
+                    grid.add(new int[]{d, roi, infl});
+
+        BigDecimal oneTime = n0(req.getOneTimeInvestment());
+        int currentYear = LocalDate.now().getYear();
+        List<Simulation.Scenario> scenarios = grid.parallelStream()
+                .map(g -> scenario(oneTime, req.getMonthlyInvestment(), req.getTargetAmount(), g[0], g[1], g[2], currentYear))
+                .toList();
+
+        Simulation sim = new Simulation();
+        sim.setOwnerId(user.getId());
+        sim.setCity(req.getCity());
+        sim.setOneTimeInvestment(oneTime);
+        sim.setMonthlyInvestment(req.getMonthlyInvestment());
+        sim.setDuration(durations);
+        sim.setInflationRate(inflationRates);
+        sim.setRoiRate(roiRates.size() == 1 ? roiRates.get(0) : null);
+        sim.setScenarios(scenarios);
+        sim.setCreatedAt(java.time.LocalDateTime.now());
+        sim.setUpdatedAt(java.time.LocalDateTime.now());
+        return simulationRepository.save(sim);
+    }
+
+    private static Simulation.Scenario scenario(BigDecimal oneTime, BigDecimal monthlyInput, BigDecimal target,
+                                                int periods, int roiRate, int inflationRate, int currentYear) {
+        BigDecimal monthly = monthlyInput != null
+                ? monthlyInput
+                : SimulationProjection.solveMonthly(target, oneTime, roiRate, periods);
+
+        List<BigDecimal> balances = SimulationProjection.yearlyBalances(oneTime, monthly, roiRate, periods);
+        List<Simulation.GoalGraphData> graph = new ArrayList<>(balances.size());
+        for (int i = 0; i < balances.size(); i++) {
+            graph.add(new Simulation.GoalGraphData(currentYear + i, balances.get(i)));
+        }
+        BigDecimal finalAmount = balances.isEmpty() ? oneTime : balances.get(balances.size() - 1);
+        double deflator = Math.pow(1.0 + inflationRate / 100.0, periods);
+
+        return new Simulation.Scenario(periods, roiRate, inflationRate, monthly,
+                SimulationProjection.totalInvestment(oneTime, monthly, periods),
+                finalAmount,
+                ProjectionKernel.toMoney(finalAmount.doubleValue() / deflator),
+                graph);
+    }
+
+    // Newest first, summary fields only; fetch the full document through the create/batch responses
+    public CursorPage<Simulation> getHistory(String email, String cursor, int limit) {
+        User user = requireUser(email);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // one extra row tells whether another page exists
+        List<Simulation> rows = simulationRepository.findPageByOwnerId(user.getId(), PageCursor.decode(cursor), pageSize + 1);
+        if (rows.size() <= pageSize) return new CursorPage<>(rows, null);
+
+        List<Simulation> page = new ArrayList<>(rows.subList(0, pageSize));
+        Simulation last = page.get(pageSize - 1);
+        return new CursorPage<>(page, PageCursor.after(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    private User requireUser(String email) {
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isEmpty()) throw new RuntimeException("User not found: " + email);
+        return userOpt.get();
+    }
 
-        int currentYear = LocalDate.now().getYear();
+    // Request checks that don't need the user or the AI; the stream endpoint calls this before opening the emitter
+    public void validate(SimulationRequest req) {
+        requireDuration(req);
+    }
 
-        if (req.getDurationYears() == null || req.getDurationYears() <= 0)
-            throw new IllegalArgumentException("durationYears must be > 0");
+    private int requireDuration(SimulationRequest req) {
+        if (req.getDurationYears() == null || req.getDurationYears() <= 0 || req.getDurationYears() > maxHorizonYears)
+            throw new IllegalArgumentException("durationYears must be between 1 and " + maxHorizonYears);
+        if (isMonteCarlo(req)) {
+            if (req.getPaths() != null && (req.getPaths() <= 0 || req.getPaths() > MAX_PATHS))
+                throw new IllegalArgumentException("paths must be between 1 and " + MAX_PATHS);
+            if ((req.getRoiVolatility() != null && req.getRoiVolatility() < 0)
+                    || (req.getInflationVolatility() != null && req.getInflationVolatility() < 0))
+                throw new IllegalArgumentException("volatility must be >= 0");
+        }
+        return req.getDurationYears();
+    }
 
-        int periods = req.getDurationYears();
+    private static boolean isMonteCarlo(SimulationRequest req) {
+        return req.getMode() != null && MODE_MONTE_CARLO.equalsIgnoreCase(req.getMode().trim());
+    }
+
+    // The local engine only needs rates from the AI, so it gets a rates-only prompt and schema instead of paying
+    // for a full graphData series it would discard
+    private String prompt(SimulationRequest req, int periods, int currentYear) {
+        return localEngine ? buildRatesPrompt(req, periods, currentYear) : buildPrompt(req, periods, currentYear);
+    }
+
+    private SimulationAiResponse callAi(String finalPrompt) {
+        if (localEngine) {
+            return fromRates(chatClient.prompt().user(finalPrompt).call().entity(SimulationRatesAiResponse.class));
+        }
+        return chatClient.prompt().user(finalPrompt).call().entity(SimulationAiResponse.class);
+    }
+
+    private SimulationAiResponse streamAi(String finalPrompt, AiStreamListener listener) {
+        if (localEngine) {
+            BeanOutputConverter<SimulationRatesAiResponse> converter = new BeanOutputConverter<>(SimulationRatesAiResponse.class);
+            return fromRates(converter.convert(aiStreamer.stream(finalPrompt, converter.getFormat(), listener)));
+        }
+        BeanOutputConverter<SimulationAiResponse> converter = new BeanOutputConverter<>(SimulationAiResponse.class);
+        return converter.convert(aiStreamer.stream(finalPrompt, converter.getFormat(), listener));
+    }
+
+    private static SimulationAiResponse fromRates(SimulationRatesAiResponse rates) {
+        SimulationAiResponse ai = new SimulationAiResponse();
+        if (rates != null) {
+            ai.setRoiRate(rates.getRoiRate());
+            ai.setInflationRate(rates.getInflationRate());
+        }
+        return ai;
+    }
+
+    // Brace-escaped like buildPrompt; asks only for the rates buildLocalSimulation reads
+    private static String buildRatesPrompt(SimulationRequest req, int periods, int currentYear) {
+        if (req.getMonthlyInvestment() == null && req.getTargetAmount() == null)
+            throw new IllegalArgumentException("Provide monthlyInvestment or targetAmount");
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("You are a financial planner AI.\n")
+          .append("Always respond in JSON format ONLY.\n\n")
+          .append("Scenario:\n")
+          .append("- City: ").append(nz(req.getCity())).append("\n")
+          .append("- Investment horizon: ").append(periods).append(" years starting ").append(currentYear).append("\n");
+        if (req.getRoiRate() != null) sb.append("- ROI rate (annual, %): ").append(req.getRoiRate()).append("\n");
+        if (req.getInflationRate() != null) sb.append("- Inflation rate (annual, %): ").append(req.getInflationRate()).append("\n");
+
+        sb.append("\nRules:\n")
+          .append("- Return a realistic expected annual ROI rate and annual inflation rate for this scenario, as whole percentages.\n")
+          .append("- If a rate is given above, return it unchanged.\n")
+          .append("- Do not compute balances or projections.\n")
+          .append("- Output must be strictly valid JSON; no extra text.\n\n")
+          .append("Output JSON schema:\n")
+          .append("{\n")
+          .append("  \"roiRate\": number,\n")
+          .append("  \"inflationRate\": number\n")
+          .append("}\n");
+
+        if (req.getPrompt() != null && !req.getPrompt().isBlank()) {
+            sb.append("\nAdditional user instructions (take precedence; keep JSON-only):\n<<<\n")
+              .append(req.getPrompt().trim()).append("\n>>>\n");
+        }
+
+        return esc(sb.toString());
+    }
+
+    // Returns the brace-escaped prompt, ready to hand to ChatClient
+    private static String buildPrompt(SimulationRequest req, int periods, int currentYear) {
         BigDecimal oneTime = n0(req.getOneTimeInvestment());
         BigDecimal monthly = req.getMonthlyInvestment(); // may be null if targetAmount is given
 
@@ -128,23 +390,113 @@ public class SimulationService {
               .append(req.getPrompt().trim()).append("\n>>>\n");
         }
 
-        String finalPrompt = esc(sb.toString());
+        return esc(sb.toString());
+    }
 
-        SimulationAiResponse ai;
-        try {
-            ai = chatClient
-                    .prompt()
-                    .user(finalPrompt)
-                    .call()
-                    .entity(SimulationAiResponse.class);
-        } catch (WebClientResponseException e) {
-            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
-                throw new RuntimeException("AI quota exceeded (429). Configure billing or retry later.");
+    private static RuntimeException aiFailure(Exception e) {
+        if (e instanceof ResponseStatusException rse) {
+            return rse;
+        }
+        if (e instanceof WebClientResponseException wce) {
+            if (wce.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                return new RuntimeException("AI quota exceeded (429). Configure billing or retry later.");
             }
-            throw new RuntimeException("AI call failed: " + e.getStatusCode().value() + " - " + e.getResponseBodyAsString());
-        } catch (Exception e) {
-            throw new RuntimeException("AI call failed: " + e.getMessage());
+            return new RuntimeException("AI call failed: " + wce.getStatusCode().value() + " - " + wce.getResponseBodyAsString());
         }
+        return new RuntimeException("AI call failed: " + e.getMessage());
+    }
+
+    // With the local engine the AI is only consulted for rates: when the request leaves ROI open
+    // or carries custom instructions. Everything else is plain annuity math.
+    private boolean needsAi(SimulationRequest req) {
+        return !localEngine
+                || req.getRoiRate() == null
+                || (req.getPrompt() != null && !req.getPrompt().isBlank());
+    }
+
+    private Simulation buildSimulation(SimulationRequest req, SimulationAiResponse ai, int periods,
+                                       int currentYear, String finalPrompt) {
+        Simulation sim = localEngine
+                ? buildLocalSimulation(req, ai, periods, currentYear, finalPrompt)
+                : buildAiSimulation(req, ai, periods, currentYear, finalPrompt);
+        if (isMonteCarlo(req)) sim.setMonteCarlo(monteCarloBands(req, sim, periods, currentYear));
+        return sim;
+    }
+
+    // Bands are centred on the same rates and contributions as graphData, so the deterministic series
+    // and P50 line up when volatility is zero. A missing seed is generated and stored so the run can be replayed.
+    private static Simulation.MonteCarloBands monteCarloBands(SimulationRequest req, Simulation sim, int periods,
+                                                              int currentYear) {
+        int paths = req.getPaths() != null ? req.getPaths() : DEFAULT_PATHS;
+        long seed = req.getSeed() != null ? req.getSeed() : new SplittableRandom().nextLong();
+        int roiVol = req.getRoiVolatility() != null ? req.getRoiVolatility() : DEFAULT_ROI_VOLATILITY;
+        int inflationVol = req.getInflationVolatility() != null ? req.getInflationVolatility() : DEFAULT_INFLATION_VOLATILITY;
+        int roiRate = sim.getRoiRate() != null && sim.getRoiRate() > 0 ? sim.getRoiRate() : DEFAULT_ROI_RATE;
+        int inflationRate = sim.getInflationRate() == null || sim.getInflationRate().isEmpty()
+                ? DEFAULT_INFLATION_RATE : sim.getInflationRate().get(0);
+
+        MonteCarloProjection.Bands b = MonteCarloProjection.run(
+                n0(sim.getOneTimeInvestment()).doubleValue(), n0(sim.getMonthlyInvestment()).doubleValue(),
+                roiRate, roiVol, inflationRate, inflationVol, periods, paths, seed);
+
+        return new Simulation.MonteCarloBands(paths, seed, roiVol, inflationVol,
+                toBands(b.nominalP10(), b.nominalP50(), b.nominalP90(), currentYear),
+                toBands(b.realP10(), b.realP50(), b.realP90(), currentYear));
+    }
+
+    private static List<Simulation.PercentileBand> toBands(double[] p10, double[] p50, double[] p90, int startYear) {
+        List<Simulation.PercentileBand> out = new ArrayList<>(p50.length);
+        for (int i = 0; i < p50.length; i++) {
+            out.add(new Simulation.PercentileBand(startYear + i,
+                    ProjectionKernel.toMoney(p10[i]), ProjectionKernel.toMoney(p50[i]), ProjectionKernel.toMoney(p90[i])));
+        }
+        return out;
+    }
+
+    // Explicit request rates win, the AI (if it was asked) fills the gaps, then the defaults used for goals
+    private static Simulation buildLocalSimulation(SimulationRequest req, SimulationAiResponse ai, int periods,
+                                                   int currentYear, String finalPrompt) {
+        int roiRate = req.getRoiRate() != null ? req.getRoiRate()
+                : (ai != null && ai.getRoiRate() != null && ai.getRoiRate() > 0 ? ai.getRoiRate() : DEFAULT_ROI_RATE);
+        int inflationRate = req.getInflationRate() != null ? req.getInflationRate()
+                : (ai != null && ai.getInflationRate() != null ? ai.getInflationRate() : DEFAULT_INFLATION_RATE);
+
+        BigDecimal oneTime = n0(req.getOneTimeInvestment());
+        BigDecimal monthly = req.getMonthlyInvestment() != null
+                ? req.getMonthlyInvestment()
+                : SimulationProjection.solveMonthly(req.getTargetAmount(), oneTime, roiRate, periods);
+
+        List<BigDecimal> balances = SimulationProjection.yearlyBalances(oneTime, monthly, roiRate, periods);
+        List<SimulationAiResponse.GraphPoint> series = new ArrayList<>(balances.size());
+        for (int i = 0; i < balances.size(); i++) {
+            SimulationAiResponse.GraphPoint gp = new SimulationAiResponse.GraphPoint();
+            gp.setYear(i + 1);
+            gp.setProjectedValue(balances.get(i));
+            series.add(gp);
+        }
+        BigDecimal finalAmount = balances.isEmpty() ? oneTime : balances.get(balances.size() - 1);
+
+        Simulation sim = new Simulation();
+        sim.setCity(req.getCity());
+        sim.setOriginalPrompt(ai != null ? finalPrompt : null);
+        sim.setOneTimeInvestment(oneTime);
+        sim.setMonthlyInvestment(monthly);
+        sim.setDuration(List.of(periods));
+        sim.setInflationRate(List.of(inflationRate));
+        sim.setRoiRate(roiRate);
+        sim.setTotalInvestment(SimulationProjection.totalInvestment(oneTime, monthly, periods));
+        sim.setTotalAmount(finalAmount);
+        sim.setGraphData(toCalendarSeries(series, currentYear));
+        sim.setCreatedAt(java.time.LocalDateTime.now());
+        sim.setUpdatedAt(java.time.LocalDateTime.now());
+        return sim;
+    }
+
+    // Legacy path (app.simulation.local-engine=false): the AI computes the series, we only patch gaps
+    private static Simulation buildAiSimulation(SimulationRequest req, SimulationAiResponse ai, int periods,
+                                                int currentYear, String finalPrompt) {
+        BigDecimal oneTime = n0(req.getOneTimeInvestment());
+        BigDecimal monthly = req.getMonthlyInvestment();
 
         // Normalize and enforce invariants
         List<SimulationAiResponse.GraphPoint> norm = normalizeIndexSeries(ai.getGraphData(), periods);
@@ -160,7 +512,7 @@ public class SimulationService {
         BigDecimal totalAmount = n0(ai.getTotalAmount());
         if (totalAmount.signum() == 0) totalAmount = finalAmount;
 
-        // Persist
+        // Map to entity
         Simulation sim = new Simulation();
         sim.setCity(req.getCity());
         sim.setOriginalPrompt(finalPrompt);
@@ -177,8 +529,6 @@ public class SimulationService {
         sim.setCreatedAt(java.time.LocalDateTime.now());
         sim.setUpdatedAt(java.time.LocalDateTime.now());
 
-        Simulation saved = simulationRepository.save(sim);
-
-        return saved;
+        return sim;
     }
-}
\ No newline at end of file
+}
@@ -2,25 +2,33 @@ package com.novofy.service;
 
 
 import com.novofy.model.Goal;
+import com.mongodb.DBRef;
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.*;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.novofy.config.BcryptWorkFactorPolicy;
 import com.novofy.dto.LoginRequest;
 import com.novofy.dto.SignupRequest;
 import com.novofy.jwt.JwtUtil;
+import com.novofy.jwt.TokenVersionRegistry;
 import com.novofy.model.User;
+import com.novofy.model.MailOutbox;
 import com.novofy.model.PasswordResetToken;
 import com.novofy.repository.UserRepository;
+import com.novofy.repository.MailOutboxRepository;
 import com.novofy.repository.PasswordResetTokenRepository;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.SimpleMailMessage;
 import java.util.Optional;
 import java.util.UUID;
 import java.time.LocalDateTime;
@@ -33,33 +41,38 @@ public class UserService implements UserDetailsService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashing;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private BcryptWorkFactorPolicy workFactor;
+
+    private volatile String unknownUserHash;
 
-    @Lazy
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private JwtUtil jwtUtil;
 
     @Autowired
     private PasswordResetTokenRepository passwordResetTokenRepository;
 
     @Autowired
-    private JavaMailSender mailSender;
+    private MailOutboxRepository mailOutboxRepository;
+
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersions;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
 
+    // Hot path for every authenticated request (JwtFilter); served from the principal cache when possible
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        return org.springframework.security.core.userdetails.User
-                .builder()
-                .username(user.getEmail()) // or user.getUsername() if you prefer
-                .password(user.getPassword())
-                .roles(user.getRole()) // example: ADMIN, USER
-                .build();
+        return principalCache.get(email, e -> userRepository.findByEmail(e)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found")));
     }
 
 
@@ -73,7 +86,7 @@ public class UserService implements UserDetailsService {
 
         com.novofy.model.User user = User.builder()
                 .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashing.encode(request.getPassword()))
                 .email(request.getEmail())
                 .role("USER")
                 .createdAt(request.getCreatedAt())
@@ -82,15 +95,57 @@ public class UserService implements UserDetailsService {
                 .build();
 
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
     }
 
 
-    public String loginUser(LoginRequest request) {
+    public record LoginResult(String token, String username, String email) {
+    }
+
+    // One projected read serves verification, token issuance and the response body.
+    // Unknown emails are checked against a throwaway hash so both failures cost the same bcrypt time.
+    public LoginResult loginUser(LoginRequest request) {
+        // malformed requests are refused before they cost a bcrypt slot
+        if (request.getEmail() == null || request.getEmail().isBlank()
+                || request.getPassword() == null || request.getPassword().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email and password are required");
+        }
+        Optional<User> found = userRepository.findLoginViewByEmail(request.getEmail());
 
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Invalid email"));
-        return jwtUtil.generateToken(user.getEmail(), user.getRole());
+        String hash = found.map(User::getPassword).orElseGet(this::unknownUserHash);
+        boolean matches = passwordHashing.matches(request.getPassword(), hash);
+        if (found.isEmpty() || !matches) throw new BadCredentialsException("Bad credentials");
+
+        User user = found.get();
+        principalCache.put(user);
+        rehashIfNeeded(user, request.getPassword());
+
+        String token = jwtUtil.generateToken(user.getEmail(), user.getRole(), user.getTokenVersion());
+        return new LoginResult(token, user.getUsername() == null ? "" : user.getUsername(), user.getEmail());
+    }
+
+    private String unknownUserHash() {
+        String h = unknownUserHash;
+        if (h == null) {
+            h = passwordHashing.encode(UUID.randomUUID().toString());
+            unknownUserHash = h;
+        }
+        return h;
+    }
+
+    // The raw password is only available right after a successful check, so that's when an outdated cost
+    // gets upgraded. Conditional on the old hash so a concurrent reset is never overwritten.
+    private void rehashIfNeeded(User user, String rawPassword) {
+        String oldHash = user.getPassword();
+        if (!workFactor.needsRehash(oldHash)) return;
+
+        passwordHashing.encodeInBackground(rawPassword, newHash -> {
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(user.getId()).and("password").is(oldHash)),
+                    new Update().set("password", newHash),
+                    User.class);
+            principalCache.invalidate(user.getEmail());
+        });
     }
 
 
@@ -102,7 +157,7 @@ public class UserService implements UserDetailsService {
         return userRepository.findByEmail(email);
     }
 
-    // Send password reset email and store token in MongoDB
+    // Store the reset token and queue the email; MailOutboxDispatcher delivers it off the request thread
     public void sendPasswordResetEmail(String email) {
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isEmpty()) throw new RuntimeException("User not found");
@@ -120,12 +175,16 @@ public class UserService implements UserDetailsService {
 
         String resetLink = "https://nafaverse-uc38.vercel.app/reset-password?token=" + token;
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(email);
-        message.setSubject("Password Reset Request");
-        message.setText("Click the link to reset your password: " + resetLink);
-
-        mailSender.send(message);
+        LocalDateTime now = LocalDateTime.now();
+        mailOutboxRepository.save(MailOutbox.builder()
+                .to(email)
+                .subject("Password Reset Request")
+                .body("Click the link to reset your password: " + resetLink)
+                .status(MailOutbox.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
     }
 
     // Reset password using token from MongoDB
@@ -138,21 +197,40 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("Token expired");
         }
 
-        User user = userRepository.findByEmail(resetToken.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        // One atomic update: concurrent resets each get their own version, and a concurrent $push/$pull on
+        // goals isn't overwritten the way a full-document save would
+        Query byEmail = Query.query(Criteria.where("email").is(resetToken.getEmail()));
+        byEmail.fields().include("email").include("tokenVersion");
+        User user = mongoTemplate.findAndModify(byEmail,
+                new Update()
+                        .set("password", passwordHashing.encode(newPassword))
+                        .inc("tokenVersion", 1) // revoke every token issued before the reset
+                        .set("tokenVersionChangedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                User.class);
+        if (user == null) throw new RuntimeException("User not found");
+
+        principalCache.invalidate(user.getEmail());
+        tokenVersions.update(user.getEmail(), user.getTokenVersion());
 
         passwordResetTokenRepository.deleteByToken(token); // Invalidate token after use
     }
     
+    public void removeGoalFromUser(ObjectId userId, ObjectId goalId) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().pull("goals", new DBRef("goals", goalId)),
+                User.class);
+    }
+
+    // Single atomic $push of the DBRef: no read of the user document, and concurrent goal creations can't overwrite each other
     public void addGoalToUser(ObjectId userId, Goal goal) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().push("goals", new DBRef("goals", goal.getGoalId())),
+                User.class);
 
-        user.getGoals().add(goal);
-        userRepository.save(user);
+        if (result.getMatchedCount() == 0) throw new RuntimeException("User not found");
     }
 
 }
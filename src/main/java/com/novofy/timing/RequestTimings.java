@@ -0,0 +1,83 @@
+package com.novofy.timing;
+
+import java.util.function.Supplier;
+
+// Per-request phase durations, bound to the request thread by ServerTimingFilter.
+// Recording is a no-op on threads without a collector (schedulers, SSE workers, startup), so call sites don't check.
+// Phases may overlap: a cache-miss user lookup counts towards both "user" and "db".
+public final class RequestTimings {
+
+    public enum Phase {
+        JWT("jwt"), USER("user"), DB("db"), AI("ai");
+
+        final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[Phase.values().length];
+    private final int[] counts = new int[Phase.values().length];
+
+    static RequestTimings begin() {
+        RequestTimings t = new RequestTimings();
+        CURRENT.set(t);
+        return t;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static void record(Phase phase, long elapsedNanos) {
+        RequestTimings t = CURRENT.get();
+        if (t != null) {
+            t.nanos[phase.ordinal()] += elapsedNanos;
+            t.counts[phase.ordinal()]++;
+        }
+    }
+
+    public static <T> T time(Phase phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    long totalNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    // jwt;dur=0.41, user;dur=0.05, db;dur=12.70;desc="3 calls", ai;dur=1490.22, total;dur=1511.30
+    String toHeader() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase p : Phase.values()) {
+            int n = counts[p.ordinal()];
+            if (n == 0) continue;
+            sb.append(p.metricName).append(";dur=").append(ms(nanos[p.ordinal()]));
+            if (n > 1) sb.append(";desc=\"").append(n).append(" calls\"");
+            sb.append(", ");
+        }
+        return sb.append("total;dur=").append(ms(totalNanos())).toString();
+    }
+
+    // key=value pairs for the structured log line
+    String toLogFields() {
+        StringBuilder sb = new StringBuilder("total_ms=").append(ms(totalNanos()));
+        for (Phase p : Phase.values()) {
+            sb.append(' ').append(p.metricName).append("_ms=").append(ms(nanos[p.ordinal()]))
+              .append(' ').append(p.metricName).append("_calls=").append(counts[p.ordinal()]);
+        }
+        return sb.toString();
+    }
+
+    private static String ms(long nanos) {
+        return String.format(java.util.Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
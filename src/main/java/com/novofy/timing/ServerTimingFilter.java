@@ -0,0 +1,86 @@
+package com.novofy.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Opens a RequestTimings collector ahead of the security chain (so JwtFilter is included) and writes the
+// breakdown as a Server-Timing header just before the response commits; headers can't be added afterwards.
+// One structured "timing" log line per request for a sample of requests, and always for slow ones.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    @Value("${app.server-timing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.server-timing.log-sample-rate:0.01}")
+    private double logSampleRate;
+
+    @Value("${app.server-timing.slow-ms:2000}")
+    private long slowMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RequestTimings timings = RequestTimings.begin();
+        TimingResponseWrapper wrapped = new TimingResponseWrapper(response, timings);
+        try {
+            chain.doFilter(request, wrapped);
+        } finally {
+            RequestTimings.end();
+            if (!request.isAsyncStarted()) {
+                wrapped.writeHeader(); // nothing flushed yet (small bodies are buffered)
+                logLine(request, response, timings);
+            }
+        }
+    }
+
+    private void logLine(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+        boolean slow = timings.totalNanos() >= slowMs * 1_000_000L;
+        if (!slow && ThreadLocalRandom.current().nextDouble() >= logSampleRate) return;
+        log.info("timing method={} path={} status={} slow={} {}",
+                request.getMethod(), request.getRequestURI(), response.getStatus(), slow, timings.toLogFields());
+    }
+
+    private static final class TimingResponseWrapper extends OnCommittedResponseWrapper {
+
+        private final RequestTimings timings;
+        private boolean written;
+
+        TimingResponseWrapper(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            if (written || isCommitted()) return;
+            written = true;
+            setHeader("Server-Timing", timings.toHeader());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.novofy.projection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Parity between the kernel picked by BatchProjectionKernels.best() and the scalar loop. Only meaningful when the
+// vector kernel is in use: mvn -Pvector test (the profile adds jdk.incubator.vector to the test JVM).
+class BatchProjectionKernelTest {
+
+    private static final double REL_TOLERANCE = 1e-9;
+
+    @Test
+    void bestMatchesScalarForEveryTailLength() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), "jdk.incubator.vector not enabled");
+        BatchProjectionKernel best = BatchProjectionKernels.best();
+        assumeFalse(best instanceof ScalarBatchProjectionKernel, "built without the vector profile");
+        BatchProjectionKernel scalar = BatchProjectionKernels.scalar();
+
+        Random rnd = new Random(42);
+        // 0..67 covers empty input, shorter-than-one-vector input and every remainder for up to 8 x 64-bit lanes
+        for (int length = 0; length <= 67; length++) {
+            double[] monthly = new double[length], roi = new double[length];
+            int[] years = new int[length];
+            for (int i = 0; i < length; i++) {
+                monthly[i] = 1 + rnd.nextDouble() * 250_000;
+                // every third lane has a zero rate, which takes the months-only branch
+                roi[i] = i % 3 == 0 ? 0 : rnd.nextInt(1, 31) + (i % 2 == 0 ? 0.5 : 0);
+                years[i] = rnd.nextInt(1, 61);
+            }
+
+            double[] expected = new double[length], actual = new double[length];
+            scalar.project(monthly, roi, years, expected);
+            best.project(monthly, roi, years, actual);
+
+            for (int i = 0; i < length; i++) {
+                assertEquals(expected[i], actual[i], Math.abs(expected[i]) * REL_TOLERANCE,
+                        best.name() + " length=" + length + " i=" + i + " roi=" + roi[i] + " years=" + years[i]);
+            }
+        }
+    }
+
+    @Test
+    void zeroRateIsMonthlyTimesMonths() {
+        double[] monthly = {100, 2_500.5, 7};
+        double[] roi = {0, 0, 0};
+        int[] years = {1, 10, 40};
+        double[] out = new double[3];
+
+        BatchProjectionKernels.best().project(monthly, roi, years, out);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(monthly[i] * 12 * years[i], out[i], 1e-9);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.novofy.projection;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Parity between the double kernel and the per-year BigDecimal.pow implementation it replaced
+class ProjectionKernelTest {
+
+    private static final MathContext MC = MathContext.DECIMAL64;
+
+    private static final double[] MONTHLY = {1, 100, 12_345.67, 250_000};
+    private static final double[] ONE_TIME = {0, 5_000, 1_000_000};
+
+    // The former GoalService.computeGraphFromMonthly value for a single year offset
+    private static BigDecimal referenceAnnuity(BigDecimal monthly, int roiRatePercent, int years) {
+        BigDecimal rMonthly = BigDecimal.valueOf(roiRatePercent).divide(BigDecimal.valueOf(100), MC)
+                .divide(BigDecimal.valueOf(12), MC);
+        BigDecimal pow = BigDecimal.ONE.add(rMonthly, MC).pow(years * 12, MC);
+        return monthly.multiply(pow.subtract(BigDecimal.ONE, MC).divide(rMonthly, MC), MC);
+    }
+
+    // The former GoalService.solveMonthlyFromFinal
+    private static BigDecimal referenceSolveMonthly(BigDecimal targetFinal, int years, int roiRatePercent) {
+        BigDecimal rMonthly = BigDecimal.valueOf(roiRatePercent).divide(BigDecimal.valueOf(100), MC)
+                .divide(BigDecimal.valueOf(12), MC);
+        BigDecimal pow = BigDecimal.ONE.add(rMonthly, MC).pow(years * 12, MC);
+        BigDecimal denom = pow.subtract(BigDecimal.ONE, MC).divide(rMonthly, MC);
+        return targetFinal.divide(denom, MC).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal referenceLumpSum(BigDecimal oneTime, int roiRatePercent, int years) {
+        BigDecimal rMonthly = BigDecimal.valueOf(roiRatePercent).divide(BigDecimal.valueOf(100), MC)
+                .divide(BigDecimal.valueOf(12), MC);
+        return oneTime.multiply(BigDecimal.ONE.add(rMonthly, MC).pow(years * 12, MC), MC);
+    }
+
+    // A cent, or 1e-12 relative for the very large long-horizon values
+    private static void assertMoneyClose(BigDecimal expected, BigDecimal actual, String what) {
+        BigDecimal tolerance = expected.abs().multiply(new BigDecimal("1e-12")).max(new BigDecimal("0.01"));
+        BigDecimal diff = expected.setScale(2, RoundingMode.HALF_UP).subtract(actual).abs();
+        assertTrue(diff.compareTo(tolerance) <= 0,
+                what + ": expected " + expected.setScale(2, RoundingMode.HALF_UP) + " but was " + actual);
+    }
+
+    @Test
+    void yearlyBalancesMatchBigDecimalAnnuity() {
+        for (double monthly : MONTHLY) {
+            for (int roi = 1; roi <= 30; roi++) {
+                double[] balances = ProjectionKernel.yearlyBalances(0.0, monthly, roi, 50);
+                for (int years = 1; years <= 50; years++) {
+                    BigDecimal expected = referenceAnnuity(BigDecimal.valueOf(monthly), roi, years);
+                    assertMoneyClose(expected, ProjectionKernel.toMoney(balances[years]),
+                            "monthly=" + monthly + " roi=" + roi + " years=" + years);
+                }
+            }
+        }
+    }
+
+    @Test
+    void yearlyBalancesIncludeCompoundedLumpSum() {
+        for (double oneTime : ONE_TIME) {
+            for (int roi : new int[]{4, 12, 25}) {
+                double[] balances = ProjectionKernel.yearlyBalances(oneTime, 500, roi, 40);
+                assertEquals(oneTime, balances[0]);
+                for (int years = 1; years <= 40; years++) {
+                    BigDecimal expected = referenceLumpSum(BigDecimal.valueOf(oneTime), roi, years)
+                            .add(referenceAnnuity(BigDecimal.valueOf(500), roi, years), MC);
+                    assertMoneyClose(expected, ProjectionKernel.toMoney(balances[years]),
+                            "oneTime=" + oneTime + " roi=" + roi + " years=" + years);
+                }
+            }
+        }
+    }
+
+    @Test
+    void annuityFactorInvertsLikeSolveMonthlyFromFinal() {
+        BigDecimal[] targets = {new BigDecimal("400000"), new BigDecimal("1300000"), new BigDecimal("98765432.10")};
+        for (BigDecimal target : targets) {
+            for (int roi = 1; roi <= 30; roi++) {
+                for (int years = 1; years <= 50; years++) {
+                    BigDecimal expected = referenceSolveMonthly(target, years, roi);
+                    BigDecimal actual = ProjectionKernel.toMoney(target.doubleValue() / ProjectionKernel.annuityFactor(roi, years));
+                    assertMoneyClose(expected, actual, "target=" + target + " roi=" + roi + " years=" + years);
+                }
+            }
+        }
+    }
+
+    @Test
+    void zeroRateDegeneratesToPlainSum() {
+        double[] balances = ProjectionKernel.yearlyBalances(1_000, 100, 0, 10);
+        assertEquals(1_000 + 100 * 12 * 10, balances[10], 1e-9);
+        assertEquals(120, ProjectionKernel.annuityFactor(0, 10), 1e-12);
+    }
+}
@@ -0,0 +1,49 @@
+package com.novofy.projection;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD version of ScalarBatchProjectionKernel on the incubating Vector API; compiled only by the "vector" Maven
+// profile (src/vector/java), so default builds stay free of the incubating-module warning.
+// Only referenced reflectively from BatchProjectionKernels, so the class is never linked unless the JVM
+// runs with --add-modules jdk.incubator.vector. The tail shorter than one vector goes through ProjectionKernel.
+final class VectorBatchProjectionKernel implements BatchProjectionKernel {
+
+    private static final VectorSpecies<Double> D = DoubleVector.SPECIES_PREFERRED;
+    // int species with the same lane count as D, so one load of horizons widens into exactly one double vector
+    private static final VectorSpecies<Integer> I = VectorSpecies.of(int.class, VectorShape.forBitSize(D.length() * Integer.SIZE));
+
+    @Override
+    public void project(double[] monthly, double[] roiRatePercent, int[] years, double[] out, int length) {
+        int lanes = D.length();
+        int upper = D.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += lanes) {
+            DoubleVector rm = DoubleVector.fromArray(D, roiRatePercent, i).div(1200.0);
+            DoubleVector months = ((DoubleVector) IntVector.fromArray(I, years, i)
+                    .convertShape(VectorOperators.I2D, D, 0)).mul(12.0);
+
+            VectorMask<Double> zeroRate = rm.eq(0.0);
+            // divide by 1 where the rate is zero; those lanes are replaced by the month count below
+            DoubleVector safeRm = rm.blend(1.0, zeroRate);
+            DoubleVector annuity = months.mul(rm.lanewise(VectorOperators.LOG1P))
+                    .lanewise(VectorOperators.EXPM1)
+                    .div(safeRm)
+                    .blend(months, zeroRate);
+
+            DoubleVector.fromArray(D, monthly, i).mul(annuity).intoArray(out, i);
+        }
+        for (; i < length; i++) {
+            out[i] = monthly[i] * ProjectionKernel.annuityFactor(roiRatePercent[i], years[i]);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + D.length() + "x64";
+    }
+}